@@ -9,23 +9,16 @@ CREATE TABLE IF NOT EXISTS log_events (
     source VARCHAR(100) NOT NULL,
     message TEXT NOT NULL,
     trace_id VARCHAR(100),
+    metadata JSONB,
     created_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
 );
 
--- Create metadata table for key-value pairs
-CREATE TABLE IF NOT EXISTS log_event_metadata (
-    log_event_id UUID NOT NULL,
-    key VARCHAR(100) NOT NULL,
-    value TEXT,
-    FOREIGN KEY (log_event_id) REFERENCES log_events(id) ON DELETE CASCADE,
-    PRIMARY KEY (log_event_id, key)
-);
-
 -- Create indexes for performance
 CREATE INDEX IF NOT EXISTS idx_log_events_timestamp ON log_events(timestamp);
 CREATE INDEX IF NOT EXISTS idx_log_events_source ON log_events(source);
 CREATE INDEX IF NOT EXISTS idx_log_events_level ON log_events(level);
 CREATE INDEX IF NOT EXISTS idx_log_events_correlation_id ON log_events(correlation_id);
+CREATE INDEX IF NOT EXISTS idx_log_events_metadata ON log_events USING GIN (metadata jsonb_path_ops);
 
 -- Grant permissions
 GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA public TO loguser;
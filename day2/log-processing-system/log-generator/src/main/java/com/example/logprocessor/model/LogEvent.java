@@ -29,11 +29,9 @@ public class LogEvent {
     @Column(name = "message", nullable = false, length = 1000)
     private String message;
     
-    @ElementCollection
-    @CollectionTable(name = "log_event_metadata", 
-                    joinColumns = @JoinColumn(name = "log_event_id"))
-    @MapKeyColumn(name = "key")
-    @Column(name = "value")
+    // Stored inline as JSONB, matching init-db.sql; no join table and one INSERT per event
+    @Convert(converter = MetadataJsonConverter.class)
+    @Column(name = "metadata", columnDefinition = "jsonb")
     private Map<String, String> metadata;
     
     @Column(name = "trace_id")
@@ -0,0 +1,36 @@
+package com.example.logprocessor.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.Map;
+
+// Hibernate 5 has no built-in JSON type, so metadata is bound as JSON text; PostgreSQL casts it into the
+// jsonb column when the connection uses stringtype=unspecified
+@Converter
+public class MetadataJsonConverter implements AttributeConverter<Map<String, String>, String> {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, String>> METADATA_TYPE = new TypeReference<Map<String, String>>() {};
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, String> metadata) {
+        try {
+            return metadata != null ? OBJECT_MAPPER.writeValueAsString(metadata) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize log event metadata", e);
+        }
+    }
+
+    @Override
+    public Map<String, String> convertToEntityAttribute(String json) {
+        try {
+            return json != null ? OBJECT_MAPPER.readValue(json, METADATA_TYPE) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to deserialize log event metadata", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.logprocessor.gateway.config;
+
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+@Configuration
+public class KafkaConfig {
+
+    public static final String PARSED_EVENTS_CONTAINER_FACTORY = "parsedEventsContainerFactory";
+
+    // Parsed events are acknowledged one record at a time, once stored, instead of the container committing
+    // after each poll. Boot's configurer still applies the spring.kafka settings and the rebalance listener.
+    @Bean(PARSED_EVENTS_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> parsedEventsContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
@@ -2,14 +2,17 @@ package com.example.logprocessor.gateway.controller;
 
 import com.example.logprocessor.gateway.entity.LogEvent;
 import com.example.logprocessor.gateway.service.LogEventService;
+import com.example.logprocessor.gateway.service.SketchQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -18,9 +21,14 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class LogEventController {
     
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    
     @Autowired
     private LogEventService logEventService;
     
+    @Autowired
+    private SketchQueryService sketchQueryService;
+    
     @GetMapping
     public ResponseEntity<Page<LogEvent>> getLogs(
             @RequestParam(defaultValue = "0") int page,
@@ -38,6 +46,28 @@ public class LogEventController {
         return ResponseEntity.ok(logs);
     }
     
+    @GetMapping("/cursor")
+    public ResponseEntity<Map<String, Object>> getLogsByCursor(
+            @RequestParam(required = false) String ipAddress,
+            @RequestParam(required = false) Integer statusCode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        if (size <= 0 || size > MAX_CURSOR_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "size must be between 1 and " + MAX_CURSOR_PAGE_SIZE));
+        }
+        
+        try {
+            boolean ascending = !sortDir.equalsIgnoreCase("desc");
+            return ResponseEntity.ok(logEventService.getLogEventsByCursor(
+                ipAddress, statusCode, cursor, size, ascending, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/ip/{ipAddress}")
     public ResponseEntity<Page<LogEvent>> getLogsByIp(
             @PathVariable String ipAddress,
@@ -74,6 +104,40 @@ public class LogEventController {
         return ResponseEntity.ok(stats);
     }
     
+    // Approximate distinct count of ip, path or user_agent over the window (default: the last hour)
+    @GetMapping("/stats/distinct")
+    public ResponseEntity<Map<String, Object>> getDistinctCount(
+            @RequestParam String field,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        
+        LocalDateTime untilTime = until != null ? until : LocalDateTime.now();
+        LocalDateTime sinceTime = since != null ? since : untilTime.minusHours(1);
+        try {
+            return ResponseEntity.ok(sketchQueryService.distinctCount(field, sinceTime, untilTime));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // Approximate response_time quantiles for all requests, one path, or each path (byPath=true)
+    @GetMapping("/stats/response-time")
+    public ResponseEntity<Map<String, Object>> getResponseTimeQuantiles(
+            @RequestParam(required = false) String path,
+            @RequestParam(defaultValue = "false") boolean byPath,
+            @RequestParam(defaultValue = "0.5,0.9,0.99") double[] q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until) {
+        
+        LocalDateTime untilTime = until != null ? until : LocalDateTime.now();
+        LocalDateTime sinceTime = since != null ? since : untilTime.minusHours(1);
+        try {
+            return ResponseEntity.ok(sketchQueryService.responseTimeQuantiles(path, byPath, q, sinceTime, untilTime));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         return ResponseEntity.ok(Map.of("status", "healthy", "service", "api-gateway"));
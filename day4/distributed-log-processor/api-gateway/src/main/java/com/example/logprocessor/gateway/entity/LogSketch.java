@@ -0,0 +1,53 @@
+package com.example.logprocessor.gateway.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// A serialized, mergeable sketch for one (kind, dimension, bucket). Several rows may exist for the same
+// key (late events, several gateway instances); readers merge them like any other bucket.
+@Entity
+@Table(name = "log_sketches")
+public class LogSketch {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "kind", nullable = false, length = 20)
+    private String kind;
+    
+    @Column(name = "dimension", nullable = false, length = 500)
+    private String dimension;
+    
+    @Column(name = "sketch", nullable = false, length = 1048576)
+    private byte[] sketch;
+    
+    // Constructors
+    public LogSketch() {}
+    
+    public LogSketch(LocalDateTime bucketStart, String kind, String dimension, byte[] sketch) {
+        this.bucketStart = bucketStart;
+        this.kind = kind;
+        this.dimension = dimension;
+        this.sketch = sketch;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+    
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    
+    public String getDimension() { return dimension; }
+    public void setDimension(String dimension) { this.dimension = dimension; }
+    
+    public byte[] getSketch() { return sketch; }
+    public void setSketch(byte[] sketch) { this.sketch = sketch; }
+}
@@ -0,0 +1,44 @@
+package com.example.logprocessor.gateway.model;
+
+import com.example.logprocessor.gateway.entity.LogEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Opaque keyset position: the (timestamp, id) of the last row a client has seen
+public class LogCursor {
+    
+    private final LocalDateTime timestamp;
+    private final long id;
+    
+    public LogCursor(LocalDateTime timestamp, long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+    
+    public static LogCursor after(LogEvent event) {
+        return new LogCursor(event.getTimestamp(), event.getId());
+    }
+    
+    public static LogCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new LogCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                                 Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+    
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public LocalDateTime getTimestamp() { return timestamp; }
+    
+    public long getId() { return id; }
+}
@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface LogEventRepository extends JpaRepository<LogEvent, Long> {
+public interface LogEventRepository extends JpaRepository<LogEvent, Long>, LogEventRepositoryCustom {
     
     Page<LogEvent> findByIpAddress(String ipAddress, Pageable pageable);
     
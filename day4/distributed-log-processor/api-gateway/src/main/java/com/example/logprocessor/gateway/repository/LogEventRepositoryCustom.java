@@ -0,0 +1,13 @@
+package com.example.logprocessor.gateway.repository;
+
+import com.example.logprocessor.gateway.entity.LogEvent;
+import com.example.logprocessor.gateway.model.LogCursor;
+
+import java.util.List;
+
+public interface LogEventRepositoryCustom {
+    
+    List<LogEvent> findKeyset(String ipAddress, Integer statusCode, LogCursor after, boolean ascending, int limit);
+    
+    long countMatching(String ipAddress, Integer statusCode);
+}
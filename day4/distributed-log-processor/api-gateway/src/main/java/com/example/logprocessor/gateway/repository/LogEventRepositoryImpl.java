@@ -0,0 +1,78 @@
+package com.example.logprocessor.gateway.repository;
+
+import com.example.logprocessor.gateway.entity.LogEvent;
+import com.example.logprocessor.gateway.model.LogCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Keyset pagination over (timestamp, id): each page seeks past the previous page's last row instead of
+// scanning and discarding an offset. Rows without a timestamp have no position and are not paged.
+public class LogEventRepositoryImpl implements LogEventRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<LogEvent> findKeyset(String ipAddress, Integer statusCode, LogCursor after, boolean ascending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LogEvent> query = cb.createQuery(LogEvent.class);
+        Root<LogEvent> root = query.from(LogEvent.class);
+        Path<LocalDateTime> timestamp = root.get("timestamp");
+        Path<Long> id = root.get("id");
+        
+        List<Predicate> predicates = filters(cb, root, ipAddress, statusCode);
+        predicates.add(cb.isNotNull(timestamp));
+        if (after != null) {
+            // (timestamp, id) past the cursor; the redundant bound on timestamp alone gives the planner an index range
+            if (ascending) {
+                predicates.add(cb.greaterThanOrEqualTo(timestamp, after.getTimestamp()));
+                predicates.add(cb.or(cb.greaterThan(timestamp, after.getTimestamp()),
+                                     cb.and(cb.equal(timestamp, after.getTimestamp()), cb.greaterThan(id, after.getId()))));
+            } else {
+                predicates.add(cb.lessThanOrEqualTo(timestamp, after.getTimestamp()));
+                predicates.add(cb.or(cb.lessThan(timestamp, after.getTimestamp()),
+                                     cb.and(cb.equal(timestamp, after.getTimestamp()), cb.lessThan(id, after.getId()))));
+            }
+        }
+        
+        query.select(root)
+             .where(predicates.toArray(new Predicate[0]))
+             .orderBy(ascending ? Arrays.asList(cb.asc(timestamp), cb.asc(id)) : Arrays.asList(cb.desc(timestamp), cb.desc(id)));
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    @Override
+    public long countMatching(String ipAddress, Integer statusCode) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<LogEvent> root = query.from(LogEvent.class);
+        List<Predicate> predicates = filters(cb, root, ipAddress, statusCode);
+        predicates.add(cb.isNotNull(root.get("timestamp")));
+        query.select(cb.count(root)).where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+    
+    private static List<Predicate> filters(CriteriaBuilder cb, Root<LogEvent> root, String ipAddress, Integer statusCode) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (ipAddress != null) {
+            predicates.add(cb.equal(root.get("ipAddress"), ipAddress));
+        }
+        if (statusCode != null) {
+            predicates.add(cb.equal(root.get("statusCode"), statusCode));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.logprocessor.gateway.repository;
+
+import com.example.logprocessor.gateway.entity.LogSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LogSketchRepository extends JpaRepository<LogSketch, Long> {
+    
+    @Query("SELECT s FROM LogSketch s WHERE s.kind = :kind AND s.dimension = :dimension " +
+           "AND s.bucketStart >= :since AND s.bucketStart < :until")
+    List<LogSketch> findInWindow(@Param("kind") String kind, @Param("dimension") String dimension,
+                                 @Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+    
+    @Query("SELECT s FROM LogSketch s WHERE s.kind = :kind AND s.bucketStart >= :since AND s.bucketStart < :until")
+    List<LogSketch> findAllDimensionsInWindow(@Param("kind") String kind,
+                                              @Param("since") LocalDateTime since, @Param("until") LocalDateTime until);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LogSketch s WHERE s.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
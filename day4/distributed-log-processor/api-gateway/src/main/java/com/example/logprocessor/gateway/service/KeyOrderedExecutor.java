@@ -0,0 +1,59 @@
+package com.example.logprocessor.gateway.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// A pool of single-threaded workers; tasks sharing a key always run on the same worker, in submission order.
+// Each worker has a bounded queue, and submitting to a full one blocks the caller (the consumer thread).
+@Component
+public class KeyOrderedExecutor {
+
+    private final List<ExecutorService> workers;
+
+    public KeyOrderedExecutor(@Value("${app.processing.workers:8}") int workerCount,
+                              @Value("${app.processing.queue-capacity:1000}") int queueCapacity) {
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            String threadName = "key-worker-" + i;
+            workers.add(new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> new Thread(r, threadName), KeyOrderedExecutor::awaitRoom));
+        }
+    }
+
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        int index = key == null ? 0 : Math.floorMod(key.hashCode(), workers.size());
+        return CompletableFuture.runAsync(task, workers.get(index));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+        for (ExecutorService worker : workers) {
+            worker.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitRoom(Runnable task, ThreadPoolExecutor worker) {
+        if (worker.isShutdown()) {
+            throw new RejectedExecutionException("Key worker is shut down");
+        }
+        try {
+            worker.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a key worker", e);
+        }
+    }
+}
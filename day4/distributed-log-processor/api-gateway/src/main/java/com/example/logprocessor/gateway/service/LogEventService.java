@@ -1,21 +1,26 @@
 package com.example.logprocessor.gateway.service;
 
+import com.example.logprocessor.gateway.config.KafkaConfig;
 import com.example.logprocessor.gateway.entity.LogEvent;
+import com.example.logprocessor.gateway.model.LogCursor;
 import com.example.logprocessor.gateway.repository.LogEventRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -31,6 +36,15 @@ public class LogEventService {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Autowired
+    private KeyOrderedExecutor keyOrderedExecutor;
+    
+    @Autowired
+    private OffsetCommitTracker offsetCommitTracker;
+    
+    @Autowired
+    private SketchAggregator sketchAggregator;
+    
     private final Counter eventsStoredCounter;
     
     public LogEventService(MeterRegistry meterRegistry) {
@@ -39,12 +53,22 @@ public class LogEventService {
             .register(meterRegistry);
     }
     
-    @KafkaListener(topics = "${app.kafka.topic.parsed-events}")
-    public void storeParsedEvent(String eventJson) {
+    @KafkaListener(topics = "${app.kafka.topic.parsed-events}", containerFactory = KafkaConfig.PARSED_EVENTS_CONTAINER_FACTORY)
+    public void consumeParsedEvent(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        // The offset is committed once this record and every earlier one on its partition are stored
+        Runnable markComplete = offsetCommitTracker.track(record, acknowledgment);
+        // Records are keyed by client IP; each IP's events are stored in order on one worker, and a slow
+        // IP only holds back its own worker
+        keyOrderedExecutor.submit(record.key(), () -> storeParsedEvent(record.value()))
+            .whenComplete((result, ex) -> markComplete.run());
+    }
+    
+    private void storeParsedEvent(String eventJson) {
         try {
             JsonNode eventNode = objectMapper.readTree(eventJson);
             LogEvent logEvent = convertToEntity(eventNode);
             logEventRepository.save(logEvent);
+            sketchAggregator.record(logEvent);
             eventsStoredCounter.increment();
             logger.debug("Stored log event: {}", logEvent.getId());
         } catch (Exception e) {
@@ -115,6 +139,26 @@ public class LogEventService {
         return logEventRepository.findAll(pageable);
     }
     
+    public Map<String, Object> getLogEventsByCursor(String ipAddress, Integer statusCode, String cursor,
+                                                    int size, boolean ascending, boolean includeTotal) {
+        LogCursor after = cursor != null ? LogCursor.decode(cursor) : null;
+        
+        // One extra row tells whether another page exists without counting
+        List<LogEvent> rows = logEventRepository.findKeyset(ipAddress, statusCode, after, ascending, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<LogEvent> content = hasNext ? rows.subList(0, size) : rows;
+        
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", content);
+        page.put("size", size);
+        page.put("hasNext", hasNext);
+        page.put("nextCursor", hasNext ? LogCursor.after(content.get(content.size() - 1)).encode() : null);
+        if (includeTotal) {
+            page.put("totalElements", logEventRepository.countMatching(ipAddress, statusCode));
+        }
+        return page;
+    }
+    
     public Page<LogEvent> getLogEventsByIp(String ipAddress, Pageable pageable) {
         return logEventRepository.findByIpAddress(ipAddress, pageable);
     }
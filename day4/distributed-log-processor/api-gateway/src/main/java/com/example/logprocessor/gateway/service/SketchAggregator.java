@@ -0,0 +1,215 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.entity.LogEvent;
+import com.example.logprocessor.gateway.entity.LogSketch;
+import com.example.logprocessor.gateway.repository.LogSketchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.datasketches.hll.HllSketch;
+import org.apache.datasketches.kll.KllDoublesSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Maintains mergeable sketches per time bucket as events are stored: HyperLogLog for distinct ip addresses,
+// request paths and user agents, and KLL for response-time quantiles overall and per request path. Open
+// buckets live in memory and are written once closed; an event arriving for a bucket that was already
+// written starts a new partial sketch, which readers merge with the first.
+@Service
+public class SketchAggregator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SketchAggregator.class);
+    
+    public static final String KIND_DISTINCT_IP = "distinct_ip";
+    public static final String KIND_DISTINCT_PATH = "distinct_path";
+    public static final String KIND_DISTINCT_USER_AGENT = "distinct_ua";
+    public static final String KIND_RESPONSE_TIME = "response_time";
+    public static final String ALL = "*";
+    public static final String OTHER_PATHS = "__other__";
+    
+    // lgK 12 keeps the HLL relative error near 1.6%; KLL k 200 keeps rank error near 1.3%
+    public static final int HLL_LG_K = 12;
+    public static final int KLL_K = 200;
+    
+    @Value("${app.sketch.bucket-minutes:1}")
+    private int bucketMinutes;
+    
+    // Per-path response-time sketches per bucket; further paths share one "__other__" sketch
+    @Value("${app.sketch.max-paths-per-bucket:1000}")
+    private int maxPathsPerBucket;
+    
+    @Value("${app.sketch.retention-days:30}")
+    private int retentionDays;
+    
+    @Autowired
+    private LogSketchRepository logSketchRepository;
+    
+    private final Map<SketchKey, OpenSketch> open = new ConcurrentHashMap<>();
+    private final Map<LocalDateTime, AtomicInteger> pathsPerBucket = new ConcurrentHashMap<>();
+    private final Counter sketchesWrittenCounter;
+    
+    public SketchAggregator(MeterRegistry meterRegistry) {
+        this.sketchesWrittenCounter = Counter.builder("log_sketches_written_total")
+            .description("Total number of bucket sketches persisted")
+            .register(meterRegistry);
+    }
+    
+    public LocalDateTime bucketOf(LocalDateTime timestamp) {
+        LocalDateTime minute = timestamp.truncatedTo(ChronoUnit.MINUTES);
+        return minute.minusMinutes(minute.getMinute() % bucketMinutes);
+    }
+    
+    public int getBucketMinutes() {
+        return bucketMinutes;
+    }
+    
+    public void record(LogEvent event) {
+        LocalDateTime bucket = bucketOf(event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now());
+        if (event.getIpAddress() != null) {
+            update(new SketchKey(bucket, KIND_DISTINCT_IP, ALL), event.getIpAddress());
+        }
+        if (event.getRequestPath() != null) {
+            update(new SketchKey(bucket, KIND_DISTINCT_PATH, ALL), event.getRequestPath());
+        }
+        if (event.getUserAgent() != null) {
+            update(new SketchKey(bucket, KIND_DISTINCT_USER_AGENT, ALL), event.getUserAgent());
+        }
+        if (event.getResponseTime() != null) {
+            update(new SketchKey(bucket, KIND_RESPONSE_TIME, ALL), event.getResponseTime());
+            if (event.getRequestPath() != null) {
+                update(new SketchKey(bucket, KIND_RESPONSE_TIME, pathDimension(bucket, event.getRequestPath())),
+                       event.getResponseTime());
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.sketch.flush-interval-ms:10000}")
+    public void flushClosedBuckets() {
+        flush(bucketOf(LocalDateTime.now()));
+    }
+    
+    @Scheduled(cron = "${app.sketch.retention-cron:0 40 3 * * *}")
+    public void deleteExpiredSketches() {
+        int deleted = logSketchRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        if (deleted > 0) {
+            logger.info("Deleted {} expired sketch rows", deleted);
+        }
+    }
+    
+    @PreDestroy
+    public void flushAll() {
+        flush(LocalDateTime.MAX);
+    }
+    
+    // Writes and forgets every open sketch whose bucket starts before the given bucket
+    private void flush(LocalDateTime currentBucket) {
+        List<LogSketch> rows = new ArrayList<>();
+        for (SketchKey key : new ArrayList<>(open.keySet())) {
+            if (!key.bucket.isBefore(currentBucket)) {
+                continue;
+            }
+            OpenSketch sketch = open.remove(key);
+            if (sketch != null) {
+                rows.add(new LogSketch(key.bucket, key.kind, key.dimension, sketch.seal()));
+            }
+        }
+        pathsPerBucket.keySet().removeIf(bucket -> bucket.isBefore(currentBucket));
+        if (rows.isEmpty()) {
+            return;
+        }
+        
+        try {
+            logSketchRepository.saveAll(rows);
+            sketchesWrittenCounter.increment(rows.size());
+            logger.debug("Persisted {} bucket sketches", rows.size());
+        } catch (Exception e) {
+            logger.error("Failed to persist {} bucket sketches", rows.size(), e);
+        }
+    }
+    
+    private String pathDimension(LocalDateTime bucket, String path) {
+        SketchKey key = new SketchKey(bucket, KIND_RESPONSE_TIME, path);
+        if (open.containsKey(key)) {
+            return path;
+        }
+        AtomicInteger paths = pathsPerBucket.computeIfAbsent(bucket, b -> new AtomicInteger());
+        return paths.incrementAndGet() <= maxPathsPerBucket ? path : OTHER_PATHS;
+    }
+    
+    private void update(SketchKey key, Object value) {
+        // A flush may seal the sketch between lookup and update; the update then goes to a fresh one
+        while (true) {
+            OpenSketch sketch = open.computeIfAbsent(key, k -> new OpenSketch(k.kind));
+            if (sketch.update(value)) {
+                return;
+            }
+            open.remove(key, sketch);
+        }
+    }
+    
+    private static final class OpenSketch {
+        private final HllSketch hll;
+        private final KllDoublesSketch kll;
+        private boolean sealed;
+        
+        private OpenSketch(String kind) {
+            this.hll = KIND_RESPONSE_TIME.equals(kind) ? null : new HllSketch(HLL_LG_K);
+            this.kll = KIND_RESPONSE_TIME.equals(kind) ? KllDoublesSketch.newHeapInstance(KLL_K) : null;
+        }
+        
+        private synchronized boolean update(Object value) {
+            if (sealed) {
+                return false;
+            }
+            if (hll != null) {
+                hll.update((String) value);
+            } else {
+                kll.update((Double) value);
+            }
+            return true;
+        }
+        
+        private synchronized byte[] seal() {
+            sealed = true;
+            return hll != null ? hll.toCompactByteArray() : kll.toByteArray();
+        }
+    }
+    
+    private static final class SketchKey {
+        private final LocalDateTime bucket;
+        private final String kind;
+        private final String dimension;
+        
+        private SketchKey(LocalDateTime bucket, String kind, String dimension) {
+            this.bucket = bucket;
+            this.kind = kind;
+            this.dimension = dimension;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof SketchKey)) return false;
+            SketchKey other = (SketchKey) o;
+            return bucket.equals(other.bucket) && kind.equals(other.kind) && dimension.equals(other.dimension);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucket, kind, dimension);
+        }
+    }
+}
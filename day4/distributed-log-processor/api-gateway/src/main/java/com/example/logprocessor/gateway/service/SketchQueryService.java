@@ -0,0 +1,116 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.entity.LogSketch;
+import com.example.logprocessor.gateway.repository.LogSketchRepository;
+import org.apache.datasketches.hll.HllSketch;
+import org.apache.datasketches.hll.Union;
+import org.apache.datasketches.kll.KllDoublesSketch;
+import org.apache.datasketches.memory.Memory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Approximate answers over any window by merging the persisted bucket sketches. The window is widened to
+// whole buckets, and the bucket still open in memory is not visible until it has been flushed.
+@Service
+public class SketchQueryService {
+    
+    public static final Map<String, String> CARDINALITY_FIELDS = Map.of(
+        "ip", SketchAggregator.KIND_DISTINCT_IP,
+        "path", SketchAggregator.KIND_DISTINCT_PATH,
+        "user_agent", SketchAggregator.KIND_DISTINCT_USER_AGENT
+    );
+    
+    // Standard deviations for the reported bounds (2 is roughly a 95% interval)
+    private static final int BOUND_STDDEVS = 2;
+    
+    @Autowired
+    private LogSketchRepository logSketchRepository;
+    
+    @Autowired
+    private SketchAggregator sketchAggregator;
+    
+    public Map<String, Object> distinctCount(String field, LocalDateTime since, LocalDateTime until) {
+        String kind = CARDINALITY_FIELDS.get(field);
+        if (kind == null) {
+            throw new IllegalArgumentException("field must be one of " + CARDINALITY_FIELDS.keySet());
+        }
+        LocalDateTime from = sketchAggregator.bucketOf(since);
+        List<LogSketch> rows = logSketchRepository.findInWindow(kind, SketchAggregator.ALL, from, until);
+        
+        Union union = new Union(SketchAggregator.HLL_LG_K);
+        for (LogSketch row : rows) {
+            union.update(HllSketch.heapify(row.getSketch()));
+        }
+        HllSketch merged = union.getResult();
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("field", field);
+        result.put("estimate", Math.round(merged.getEstimate()));
+        result.put("lowerBound", Math.round(merged.getLowerBound(BOUND_STDDEVS)));
+        result.put("upperBound", Math.round(merged.getUpperBound(BOUND_STDDEVS)));
+        result.put("since", from);
+        result.put("until", until);
+        result.put("sketchesMerged", rows.size());
+        return result;
+    }
+    
+    // Quantiles of response_time for one path, every path, or (path null) all requests
+    public Map<String, Object> responseTimeQuantiles(String path, boolean byPath, double[] quantiles,
+                                                     LocalDateTime since, LocalDateTime until) {
+        for (double q : quantiles) {
+            if (q < 0 || q > 1) {
+                throw new IllegalArgumentException("quantiles must be between 0 and 1");
+            }
+        }
+        LocalDateTime from = sketchAggregator.bucketOf(since);
+        Map<String, KllDoublesSketch> merged = new TreeMap<>();
+        List<LogSketch> rows = byPath
+            ? logSketchRepository.findAllDimensionsInWindow(SketchAggregator.KIND_RESPONSE_TIME, from, until)
+            : logSketchRepository.findInWindow(SketchAggregator.KIND_RESPONSE_TIME,
+                                               path != null ? path : SketchAggregator.ALL, from, until);
+        for (LogSketch row : rows) {
+            if (byPath && SketchAggregator.ALL.equals(row.getDimension())) {
+                continue;
+            }
+            merged.computeIfAbsent(row.getDimension(), d -> KllDoublesSketch.newHeapInstance(SketchAggregator.KLL_K))
+                .merge(KllDoublesSketch.heapify(Memory.wrap(row.getSketch())));
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (byPath) {
+            Map<String, Object> paths = new LinkedHashMap<>();
+            merged.forEach((dimension, sketch) -> paths.put(dimension, summarize(sketch, quantiles)));
+            result.put("paths", paths);
+        } else {
+            result.put("path", path != null ? path : SketchAggregator.ALL);
+            result.putAll(summarize(merged.get(path != null ? path : SketchAggregator.ALL), quantiles));
+        }
+        result.put("since", from);
+        result.put("until", until);
+        result.put("sketchesMerged", rows.size());
+        return result;
+    }
+    
+    private static Map<String, Object> summarize(KllDoublesSketch sketch, double[] quantiles) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", sketch != null ? sketch.getN() : 0L);
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double q : quantiles) {
+            values.put("p" + formatQuantile(q), sketch != null && !sketch.isEmpty() ? sketch.getQuantile(q) : null);
+        }
+        summary.put("quantiles", values);
+        return summary;
+    }
+    
+    private static String formatQuantile(double q) {
+        // 0.5 -> p50, 0.99 -> p99, 0.999 -> p99.9
+        return BigDecimal.valueOf(q).movePointRight(2).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.logprocessor.gateway.model;
+
+import com.example.logprocessor.gateway.entity.LogEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LogCursorTest {
+
+    @Test
+    void roundTripsTimestampAndId() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 15, 12, 30, 45, 123456000);
+
+        LogCursor decoded = LogCursor.decode(new LogCursor(timestamp, 42L).encode());
+
+        assertThat(decoded.getTimestamp()).isEqualTo(timestamp);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void roundTripsWholeMinuteTimestamps() {
+        // LocalDateTime.toString drops zero seconds, which parse must still accept
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 15, 12, 30);
+
+        assertThat(LogCursor.decode(new LogCursor(timestamp, 7L).encode()).getTimestamp()).isEqualTo(timestamp);
+    }
+
+    @Test
+    void encodingIsUrlSafeWithoutPadding() {
+        String encoded = new LogCursor(LocalDateTime.of(2024, 1, 15, 12, 30, 45), Long.MAX_VALUE).encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void cursorAfterAnEventPointsAtThatRow() {
+        LogEvent event = new LogEvent();
+        event.setId(99L);
+        event.setTimestamp(LocalDateTime.of(2024, 1, 15, 8, 0, 1));
+
+        LogCursor cursor = LogCursor.after(event);
+
+        assertThat(cursor.getId()).isEqualTo(99L);
+        assertThat(cursor.getTimestamp()).isEqualTo(event.getTimestamp());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThatThrownBy(() -> LogCursor.decode("not base64!"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Invalid cursor");
+        assertThatThrownBy(() -> LogCursor.decode(encodeRaw("2024-01-15T12:30:45")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LogCursor.decode(encodeRaw("yesterday|5")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LogCursor.decode(encodeRaw("2024-01-15T12:30:45|five")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.logprocessor.gateway.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(4, 100);
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+    }
+
+    @Test
+    void tasksWithTheSameKeyRunInSubmissionOrder() throws Exception {
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> last = null;
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            last = executor.submit("10.0.0.1", () -> order.add(index));
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        assertThat(order).hasSize(50).isSorted();
+    }
+
+    @Test
+    void aSlowKeyDoesNotHoldBackOtherKeys() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        String slowKey = "10.0.0.1";
+        String otherKey = keyOnAnotherWorker(slowKey);
+        CompletableFuture<Void> slow = executor.submit(slowKey, () -> await(release));
+
+        executor.submit(otherKey, () -> { }).get(5, TimeUnit.SECONDS);
+
+        assertThat(slow).isNotDone();
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+    }
+
+    private static String keyOnAnotherWorker(String key) {
+        for (int i = 2; ; i++) {
+            String candidate = "10.0.0." + i;
+            if (Math.floorMod(candidate.hashCode(), 4) != Math.floorMod(key.hashCode(), 4)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
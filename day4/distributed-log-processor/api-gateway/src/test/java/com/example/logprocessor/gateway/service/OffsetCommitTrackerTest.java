@@ -0,0 +1,59 @@
+package com.example.logprocessor.gateway.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class OffsetCommitTrackerTest {
+
+    private final OffsetCommitTracker tracker = new OffsetCommitTracker(new SimpleMeterRegistry());
+
+    @Test
+    void acknowledgesOnlyTheHighestContiguousCompletedOffset() {
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Acknowledgment ack1 = mock(Acknowledgment.class);
+        Acknowledgment ack2 = mock(Acknowledgment.class);
+        Runnable done0 = tracker.track(record(0), ack0);
+        Runnable done1 = tracker.track(record(1), ack1);
+        Runnable done2 = tracker.track(record(2), ack2);
+
+        // A later key finishing first cannot be committed ahead of the earlier ones
+        done2.run();
+        done1.run();
+        verifyNoInteractions(ack0, ack1, ack2);
+
+        done0.run();
+        verify(ack0, never()).acknowledge();
+        verify(ack1, never()).acknowledge();
+        verify(ack2).acknowledge();
+        assertThat(tracker.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void revokeWaitsForInFlightRecordsThenForgetsThem() {
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Runnable done0 = tracker.track(record(0), ack0);
+        TopicPartition partition = new TopicPartition("parsed-events", 0);
+
+        assertThat(tracker.awaitDrained(List.of(partition), 20)).isFalse();
+        tracker.onPartitionsRevokedBeforeCommit(null, List.of(partition));
+        done0.run();
+
+        verifyNoInteractions(ack0);
+        assertThat(tracker.getInFlightCount()).isZero();
+    }
+
+    private static ConsumerRecord<String, String> record(long offset) {
+        return new ConsumerRecord<>("parsed-events", 0, offset, "10.0.0.1", "{}");
+    }
+}
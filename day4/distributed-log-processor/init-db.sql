@@ -20,6 +20,22 @@ CREATE INDEX IF NOT EXISTS idx_log_events_timestamp ON log_events(timestamp);
 CREATE INDEX IF NOT EXISTS idx_log_events_ip_address ON log_events(ip_address);
 CREATE INDEX IF NOT EXISTS idx_log_events_status_code ON log_events(status_code);
 CREATE INDEX IF NOT EXISTS idx_log_events_created_at ON log_events(created_at);
+-- Keyset pagination seeks on (timestamp, id), optionally behind an equality filter
+CREATE INDEX IF NOT EXISTS idx_log_events_timestamp_id ON log_events(timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_log_events_ip_timestamp_id ON log_events(ip_address, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_log_events_status_timestamp_id ON log_events(status_code, timestamp, id);
+
+-- Mergeable HLL/KLL sketches per time bucket, written by the api-gateway as it stores events
+CREATE TABLE IF NOT EXISTS log_sketches (
+    id BIGSERIAL PRIMARY KEY,
+    bucket_start TIMESTAMP NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    dimension VARCHAR(500) NOT NULL,
+    sketch BYTEA NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_log_sketches_kind_dimension_bucket ON log_sketches(kind, dimension, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_log_sketches_bucket ON log_sketches(bucket_start);
 
 -- Create a partition for log_events by date (optional for high volume)
 -- CREATE TABLE log_events_y2024m01 PARTITION OF log_events 
@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -48,8 +49,10 @@ public class KafkaConsumerService {
             .register(meterRegistry);
     }
     
-    @KafkaListener(topics = "${app.kafka.topic.raw-logs}", concurrency = "3")
-    public void processRawLog(String rawLogEntry) {
+    @KafkaListener(id = ConcurrencyController.LISTENER_ID, topics = "${app.kafka.topic.raw-logs}",
+                   concurrency = "${app.kafka.concurrency.min:3}",
+                   properties = "group.instance.id=${app.kafka.instance-id:log-parser-1}")
+    public void processRawLog(String rawLogEntry, Acknowledgment acknowledgment) {
         messagesReceivedCounter.increment();
         logger.debug("Processing raw log: {}", rawLogEntry);
         
@@ -69,6 +72,9 @@ public class KafkaConsumerService {
             logger.error("Error processing raw log entry", e);
             sendToDeadLetterQueue(rawLogEntry, null);
         }
+        
+        // The entry has been handed to the producer either way; commits are batched per poll
+        acknowledgment.acknowledge();
     }
     
     private void sendParsedEvent(ParsedLogEvent event) {
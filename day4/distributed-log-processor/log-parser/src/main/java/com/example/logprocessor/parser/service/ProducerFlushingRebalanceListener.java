@@ -0,0 +1,40 @@
+package com.example.logprocessor.parser.service;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+// Parsed events are sent asynchronously and raw-log offsets acknowledged right after. Flushing the producer
+// before the container commits on revoke (or shutdown) means a committed offset never outruns its output.
+@Component
+public class ProducerFlushingRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProducerFlushingRebalanceListener.class);
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    public ProducerFlushingRebalanceListener(KafkaTemplate<String, String> kafkaTemplate) {
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!partitions.isEmpty()) {
+            kafkaTemplate.flush();
+            logger.info("Flushed pending parsed events before revoking {}", partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        logger.info("Assigned raw-log partitions {}", partitions);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.logprocessor.gateway.config;
+
+import com.example.logprocessor.gateway.controller.LiveTailWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final LiveTailWebSocketHandler liveTailWebSocketHandler;
+
+    @Autowired
+    public WebSocketConfig(LiveTailWebSocketHandler liveTailWebSocketHandler) {
+        this.liveTailWebSocketHandler = liveTailWebSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveTailWebSocketHandler, "/api/v1/tail/ws");
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.logprocessor.gateway.controller;
+
+import com.example.logprocessor.gateway.model.QueryClass;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a handler for admission control; see AdmissionInterceptor
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionClass {
+    QueryClass value();
+}
@@ -0,0 +1,162 @@
+package com.example.logprocessor.gateway.controller;
+
+import com.example.logprocessor.gateway.model.QueryClass;
+import com.example.logprocessor.gateway.service.AdmissionControlService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+// Admits @AdmissionClass handlers through AdmissionControlService before the handler (and so its circuit
+// breaker) runs. The cost in permits is estimated from the request alone: the time window and how selective
+// the filters are for paged queries, the result limit for search, the batch size for trace lookups.
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+    private static final int TRACE_BATCH_BYTES_PER_PERMIT = 4096;
+    private static final int SEARCH_RESULTS_PER_PERMIT = 100;
+    private static final int ROWS_PER_PERMIT = 1000;
+
+    @Value("${log.admission.paged.days-per-permit:30}")
+    private double pagedDaysPerPermit;
+
+    @Value("${log.admission.paged.cold-days-per-permit:1}")
+    private double coldDaysPerPermit;
+
+    @Value("${log.admission.stats.days-per-permit:30}")
+    private double statsDaysPerPermit;
+
+    @Value("${log.query.federated.warm-retention-days:30}")
+    private int warmRetentionDays;
+
+    private final AdmissionControlService admissionControlService;
+
+    @Autowired
+    public AdmissionInterceptor(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        AdmissionClass admissionClass = handlerMethod.getMethodAnnotation(AdmissionClass.class);
+        if (admissionClass == null) {
+            return true;
+        }
+
+        QueryClass queryClass = admissionClass.value();
+        AdmissionControlService.Permit permit = admissionControlService.tryAdmit(queryClass, estimateCost(queryClass, request));
+        if (permit == null) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many concurrent " + queryClass.getKey() + " queries\"}");
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            // 503s from circuit breaker fallbacks count as failures, client errors do not
+            ((AdmissionControlService.Permit) permit).release(ex == null && response.getStatus() < 500);
+        }
+    }
+
+    private int estimateCost(QueryClass queryClass, HttpServletRequest request) {
+        double cost;
+        switch (queryClass) {
+            case TRACE:
+                cost = 1 + Math.max(0, request.getContentLengthLong()) / (double) TRACE_BATCH_BYTES_PER_PERMIT;
+                break;
+            case SEARCH:
+                cost = 1 + intParam(request, "limit", 100) / (double) SEARCH_RESULTS_PER_PERMIT;
+                break;
+            case STATS:
+                cost = 1 + windowDays(request, "since", "until", 1) / statsDaysPerPermit;
+                if (request.getParameterValues("groupBy") != null) {
+                    cost *= 2;
+                }
+                break;
+            default:
+                cost = pagedCost(request);
+        }
+        return (int) Math.max(1, Math.round(cost));
+    }
+
+    private double pagedCost(HttpServletRequest request) {
+        if (request.getParameter("traceId") != null) {
+            return 1;
+        }
+        // An open start covers all of warm storage; only an explicit older start reaches the cold files
+        double days = windowDays(request, "startTime", "endTime", warmRetentionDays);
+        double coldDays = Math.max(0, days - warmRetentionDays);
+        double cost = 1 + (days - coldDays) / pagedDaysPerPermit;
+
+        if (request.getParameter("level") != null || request.getParameter("source") != null
+                || request.getParameter("sourcePrefix") != null) {
+            cost /= 2;
+        }
+        if (request.getParameter("keyword") != null) {
+            cost *= 2;
+        }
+        int rows = (intParam(request, "page", 0) + 1) * intParam(request, "size", 50);
+        return cost + coldDays / coldDaysPerPermit + rows / (double) ROWS_PER_PERMIT;
+    }
+
+    private static double windowDays(HttpServletRequest request, String startName, String endName, int defaultDays) {
+        LocalDateTime end = timeParam(request, endName);
+        if (end == null) {
+            end = LocalDateTime.now(ZoneOffset.UTC);
+        }
+        LocalDateTime start = timeParam(request, startName);
+        if (start == null) {
+            start = end.minusDays(defaultDays);
+        }
+        return Math.max(0, Duration.between(start, end).toMinutes() / (24.0 * 60));
+    }
+
+    // Malformed values are left for the handler to reject
+    private static LocalDateTime timeParam(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int intParam(HttpServletRequest request, String name, int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
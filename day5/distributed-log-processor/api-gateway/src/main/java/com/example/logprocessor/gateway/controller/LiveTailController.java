@@ -0,0 +1,83 @@
+package com.example.logprocessor.gateway.controller;
+
+import com.example.logprocessor.gateway.service.LiveTailService;
+import com.example.logprocessor.gateway.service.TailSubscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/v1/tail")
+public class LiveTailController {
+
+    private final LiveTailService liveTailService;
+
+    @Autowired
+    public LiveTailController(LiveTailService liveTailService) {
+        this.liveTailService = liveTailService;
+    }
+
+    // Server-sent events: one "log" event per matching line (the producer's JSON verbatim), a "dropped"
+    // event with the count whenever the client fell behind, and comment heartbeats while idle
+    @GetMapping(value = "/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter tailSse(
+            @RequestParam(required = false) List<String> level,
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false) String keyword) {
+
+        SseEmitter emitter = new SseEmitter(0L);
+        TailSubscription subscription = liveTailService.subscribe(levels(level), source, keyword, new TailSubscription.Sink() {
+            @Override
+            public void send(String json) throws IOException {
+                emitter.send(SseEmitter.event().name("log").data(json, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void sendDropped(long dropped) throws IOException {
+                emitter.send(SseEmitter.event().name("dropped").data(dropped));
+            }
+
+            @Override
+            public void sendHeartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        if (subscription == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Live-tail subscriber limit reached");
+        }
+
+        emitter.onCompletion(() -> liveTailService.unsubscribe(subscription));
+        emitter.onTimeout(() -> liveTailService.unsubscribe(subscription));
+        emitter.onError(e -> liveTailService.unsubscribe(subscription));
+        return emitter;
+    }
+
+    static Set<String> levels(List<String> level) {
+        if (level == null) {
+            return Set.of();
+        }
+        return level.stream()
+                .flatMap(value -> List.of(value.split(",")).stream())
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(value -> value.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.logprocessor.gateway.controller;
+
+import com.example.logprocessor.gateway.service.LiveTailService;
+import com.example.logprocessor.gateway.service.TailSubscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+
+// WebSocket flavour of the live tail. Filters come from the handshake query string (level, source, keyword,
+// same as the SSE endpoint); each matching line is sent as a text frame and a {"dropped":n} frame reports
+// lines lost while the client was behind. Incoming frames are ignored.
+@Component
+public class LiveTailWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveTailWebSocketHandler.class);
+    private static final String SUBSCRIPTION_ATTRIBUTE = "tailSubscription";
+
+    private final LiveTailService liveTailService;
+
+    @Value("${log.tail.ws-send-buffer-bytes:1048576}")
+    private int sendBufferBytes;
+
+    @Autowired
+    public LiveTailWebSocketHandler(LiveTailService liveTailService) {
+        this.liveTailService = liveTailService;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession rawSession) throws Exception {
+        MultiValueMap<String, String> query = UriComponentsBuilder.fromUri(rawSession.getUri()).build().getQueryParams();
+        WebSocketSession session = new ConcurrentWebSocketSessionDecorator(rawSession, 10_000, sendBufferBytes);
+
+        TailSubscription subscription = liveTailService.subscribe(
+            LiveTailController.levels(query.get("level")), query.getFirst("source"), query.getFirst("keyword"),
+            new TailSubscription.Sink() {
+                @Override
+                public void send(String json) throws IOException {
+                    session.sendMessage(new TextMessage(json));
+                }
+
+                @Override
+                public void sendDropped(long dropped) throws IOException {
+                    session.sendMessage(new TextMessage("{\"dropped\":" + dropped + "}"));
+                }
+
+                @Override
+                public void sendHeartbeat() throws IOException {
+                    session.sendMessage(new PingMessage());
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        session.close();
+                    } catch (IOException e) {
+                        logger.debug("Failed to close live-tail session {}", session.getId(), e);
+                    }
+                }
+            });
+        if (subscription == null) {
+            rawSession.close(CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+        rawSession.getAttributes().put(SUBSCRIPTION_ATTRIBUTE, subscription);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Map<String, Object> attributes = session.getAttributes();
+        Object subscription = attributes.remove(SUBSCRIPTION_ATTRIBUTE);
+        if (subscription != null) {
+            liveTailService.unsubscribe((TailSubscription) subscription);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.logprocessor.gateway.controller;
 
+import com.example.logprocessor.gateway.model.CursorPage;
 import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import com.example.logprocessor.gateway.model.QueryClass;
+import com.example.logprocessor.gateway.service.LogExportService;
 import com.example.logprocessor.gateway.service.LogQueryService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.micrometer.core.instrument.Counter;
@@ -14,26 +18,39 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/query")
 public class LogQueryController {
 
     private static final Logger logger = LoggerFactory.getLogger(LogQueryController.class);
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final Set<String> STATS_DIMENSIONS = Set.of("level", "source");
+    private static final int MAX_TRACE_BATCH = 1000;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
     private final LogQueryService logQueryService;
+    private final LogExportService logExportService;
     private final Counter queriesCounter;
     private final Timer queryTimer;
 
     @Autowired
-    public LogQueryController(LogQueryService logQueryService, MeterRegistry meterRegistry) {
+    public LogQueryController(LogQueryService logQueryService, LogExportService logExportService,
+                              MeterRegistry meterRegistry) {
         this.logQueryService = logQueryService;
+        this.logExportService = logExportService;
         this.queriesCounter = Counter.builder("log_queries_total")
                 .description("Total number of log queries executed")
                 .register(meterRegistry);
@@ -43,10 +60,14 @@ public class LogQueryController {
     }
 
     @GetMapping("/logs")
+    @AdmissionClass(QueryClass.PAGED)
     @CircuitBreaker(name = "log-query", fallbackMethod = "fallbackLogQuery")
     public ResponseEntity<Page<LogEvent>> queryLogs(
-            @RequestParam(required = false) String level,
+            @RequestParam(required = false) List<String> level,
             @RequestParam(required = false) String source,
+            @RequestParam(required = false) List<String> sourcePrefix,
+            @RequestParam(required = false) String traceId,
+            @RequestParam(required = false) List<String> meta,
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
@@ -61,20 +82,110 @@ public class LogQueryController {
             
             Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
             Pageable pageable = PageRequest.of(page, size, sort);
+            LogQueryFilter filter = buildFilter(level, source, sourcePrefix, traceId, meta, keyword, startTime, endTime);
             
-            Page<LogEvent> result = logQueryService.queryLogs(level, source, keyword, startTime, endTime, pageable);
+            Page<LogEvent> result = logQueryService.queryLogs(filter, pageable);
             
             logger.info("Query executed successfully: level={}, source={}, keyword={}, results={}", 
                        level, source, keyword, result.getTotalElements());
             
             return ResponseEntity.ok(result);
             
+        } catch (IllegalArgumentException e) {
+            logger.debug("Rejected log query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } finally {
             sample.stop(queryTimer);
         }
     }
 
+    @GetMapping("/logs/cursor")
+    @AdmissionClass(QueryClass.PAGED)
+    @CircuitBreaker(name = "log-query", fallbackMethod = "fallbackCursorQuery")
+    public ResponseEntity<CursorPage<LogEvent>> queryLogsByCursor(
+            @RequestParam(required = false) List<String> level,
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false) List<String> sourcePrefix,
+            @RequestParam(required = false) String traceId,
+            @RequestParam(required = false) List<String> meta,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        if (size <= 0 || size > MAX_CURSOR_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            queriesCounter.increment();
+
+            boolean ascending = Sort.Direction.fromString(sortDir).isAscending();
+            LogQueryFilter filter = buildFilter(level, source, sourcePrefix, traceId, meta, keyword, startTime, endTime);
+            CursorPage<LogEvent> result = logQueryService.queryLogsByCursor(filter, cursor, size, ascending, includeTotal);
+
+            logger.info("Cursor query executed successfully: level={}, source={}, results={}, hasNext={}",
+                       level, source, result.getContent().size(), result.isHasNext());
+
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            logger.debug("Rejected cursor query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } finally {
+            sample.stop(queryTimer);
+        }
+    }
+
+    @GetMapping("/logs/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(
+            @RequestParam(required = false) List<String> level,
+            @RequestParam(required = false) String source,
+            @RequestParam(required = false) List<String> sourcePrefix,
+            @RequestParam(required = false) String traceId,
+            @RequestParam(required = false) List<String> meta,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        LogQueryFilter filter;
+        try {
+            filter = buildFilter(level, source, sourcePrefix, traceId, meta, keyword, startTime, endTime);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!logExportService.tryAcquireSlot()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+
+        queriesCounter.increment();
+        logger.info("Export started: level={}, source={}, startTime={}, endTime={}, gzip={}",
+                   level, source, startTime, endTime, gzip);
+
+        StreamingResponseBody body = out -> {
+            try {
+                logExportService.export(filter, out, gzip);
+            } finally {
+                logExportService.releaseSlot();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"logs.ndjson" + (gzip ? ".gz" : "") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/logs/{traceId}")
+    @AdmissionClass(QueryClass.TRACE)
     @CircuitBreaker(name = "log-query", fallbackMethod = "fallbackSingleLogQuery")
     public ResponseEntity<LogEvent> getLogByTraceId(@PathVariable String traceId) {
         Timer.Sample sample = Timer.start();
@@ -96,18 +207,54 @@ public class LogQueryController {
         }
     }
 
+    // Resolves a page worth of trace ids at once; the body is a JSON array of ids
+    @PostMapping("/logs/traces")
+    @AdmissionClass(QueryClass.TRACE)
+    @CircuitBreaker(name = "log-query", fallbackMethod = "fallbackTraceBatchQuery")
+    public ResponseEntity<Map<String, Object>> getLogsByTraceIds(@RequestBody List<String> traceIds) {
+        if (traceIds.isEmpty() || traceIds.size() > MAX_TRACE_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Between 1 and " + MAX_TRACE_BATCH + " trace ids are required"));
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            queriesCounter.increment();
+
+            Map<String, LogEvent> found = logQueryService.getLogsByTraceIds(traceIds);
+            List<String> missing = traceIds.stream().filter(id -> !found.containsKey(id)).distinct().toList();
+
+            logger.debug("Trace batch resolved: requested={}, found={}", traceIds.size(), found.size());
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("found", found);
+            response.put("missing", missing);
+            return ResponseEntity.ok(response);
+
+        } finally {
+            sample.stop(queryTimer);
+        }
+    }
+
     @GetMapping("/logs/stats")
+    @AdmissionClass(QueryClass.STATS)
     @CircuitBreaker(name = "log-query", fallbackMethod = "fallbackLogStats")
     public ResponseEntity<Map<String, Object>> getLogStats(
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime until,
+            @RequestParam(required = false) Set<String> groupBy) {
+        
+        Set<String> dimensions = groupBy != null ? groupBy : Set.of();
+        if (!STATS_DIMENSIONS.containsAll(dimensions)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "groupBy accepts " + STATS_DIMENSIONS));
+        }
         
         Timer.Sample sample = Timer.start();
         try {
             queriesCounter.increment();
             
-            Map<String, Object> stats = logQueryService.getLogStatistics(since);
+            Map<String, Object> stats = logQueryService.getLogStatistics(since, until, dimensions);
             
-            logger.info("Log statistics generated for period since: {}", since);
+            logger.info("Log statistics generated for period since: {}, until: {}, groupBy: {}", since, until, dimensions);
             
             return ResponseEntity.ok(stats);
             
@@ -117,6 +264,7 @@ public class LogQueryController {
     }
 
     @GetMapping("/logs/search")
+    @AdmissionClass(QueryClass.SEARCH)
     @CircuitBreaker(name = "log-query", fallbackMethod = "fallbackLogSearch")
     public ResponseEntity<List<LogEvent>> searchLogs(
             @RequestParam String query,
@@ -138,7 +286,8 @@ public class LogQueryController {
     }
 
     // Circuit breaker fallback methods
-    public ResponseEntity<Page<LogEvent>> fallbackLogQuery(String level, String source, String keyword, 
+    public ResponseEntity<Page<LogEvent>> fallbackLogQuery(List<String> level, String source, List<String> sourcePrefix,
+                                                         String traceId, List<String> meta, String keyword,
                                                          LocalDateTime startTime, LocalDateTime endTime, 
                                                          int page, int size, String sortBy, String sortDir, 
                                                          Exception ex) {
@@ -146,12 +295,28 @@ public class LogQueryController {
         return ResponseEntity.status(503).build();
     }
 
+    public ResponseEntity<CursorPage<LogEvent>> fallbackCursorQuery(List<String> level, String source,
+                                                                   List<String> sourcePrefix, String traceId,
+                                                                   List<String> meta, String keyword,
+                                                                   LocalDateTime startTime, LocalDateTime endTime,
+                                                                   String cursor, int size, String sortDir,
+                                                                   boolean includeTotal, Exception ex) {
+        logger.warn("Circuit breaker activated for cursor query. Fallback triggered.", ex);
+        return ResponseEntity.status(503).build();
+    }
+
     public ResponseEntity<LogEvent> fallbackSingleLogQuery(String traceId, Exception ex) {
         logger.warn("Circuit breaker activated for single log query. Fallback triggered.", ex);
         return ResponseEntity.status(503).build();
     }
 
-    public ResponseEntity<Map<String, Object>> fallbackLogStats(LocalDateTime since, Exception ex) {
+    public ResponseEntity<Map<String, Object>> fallbackTraceBatchQuery(List<String> traceIds, Exception ex) {
+        logger.warn("Circuit breaker activated for trace batch query. Fallback triggered.", ex);
+        return ResponseEntity.status(503).build();
+    }
+
+    public ResponseEntity<Map<String, Object>> fallbackLogStats(LocalDateTime since, LocalDateTime until,
+                                                                Set<String> groupBy, Exception ex) {
         logger.warn("Circuit breaker activated for log stats. Fallback triggered.", ex);
         return ResponseEntity.status(503).build();
     }
@@ -161,6 +326,28 @@ public class LogQueryController {
         return ResponseEntity.status(503).build();
     }
 
+    // meta entries are "key:value" pairs matched against the event metadata
+    private static LogQueryFilter buildFilter(List<String> levels, String source, List<String> sourcePrefixes,
+                                              String traceId, List<String> meta, String keyword,
+                                              LocalDateTime startTime, LocalDateTime endTime) {
+        LogQueryFilter filter = LogQueryFilter.of(null, source, keyword, startTime, endTime);
+        filter.setLevels(levels);
+        filter.setSourcePrefixes(sourcePrefixes);
+        filter.setTraceId(traceId);
+        if (meta != null) {
+            Map<String, String> metadata = new LinkedHashMap<>();
+            for (String entry : meta) {
+                int separator = entry.indexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Metadata filter must be key:value, got " + entry);
+                }
+                metadata.put(entry.substring(0, separator), entry.substring(separator + 1));
+            }
+            filter.setMetadata(metadata);
+        }
+        return filter;
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("API Gateway Service is healthy");
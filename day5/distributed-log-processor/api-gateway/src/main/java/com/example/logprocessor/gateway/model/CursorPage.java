@@ -0,0 +1,31 @@
+package com.example.logprocessor.gateway.model;
+
+import java.util.List;
+
+// One keyset page: no offset, and the total is only present when the client asked for it
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+    private final Long totalElements;
+
+    public CursorPage(List<T> content, int size, boolean hasNext, String nextCursor, Long totalElements) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+    }
+
+    public List<T> getContent() { return content; }
+
+    public int getSize() { return size; }
+
+    public boolean isHasNext() { return hasNext; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    public Long getTotalElements() { return totalElements; }
+}
@@ -1,6 +1,10 @@
 package com.example.logprocessor.gateway.model;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -24,14 +28,17 @@ public class LogEvent {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String message;
     
+    // Hot-tier entries hold the producer's snake_case Kafka payload
+    @JsonAlias("trace_id")
     @Column(name = "trace_id", length = 100)
     private String traceId;
     
-    @ElementCollection
-    @CollectionTable(name = "log_metadata", 
-                    joinColumns = @JoinColumn(name = "log_event_id"))
-    @MapKeyColumn(name = "metadata_key")
-    @Column(name = "metadata_value")
+    // Set when the full message lives in a blob segment; message then holds only a prefix
+    @Column(name = "message_ref", length = 200)
+    private String messageRef;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
     private Map<String, String> metadata;
 
     // Constructors
@@ -56,6 +63,9 @@ public class LogEvent {
     public String getTraceId() { return traceId; }
     public void setTraceId(String traceId) { this.traceId = traceId; }
 
+    public String getMessageRef() { return messageRef; }
+    public void setMessageRef(String messageRef) { this.messageRef = messageRef; }
+
     public Map<String, String> getMetadata() { return metadata; }
     public void setMetadata(Map<String, String> metadata) { this.metadata = metadata; }
 }
@@ -0,0 +1,129 @@
+package com.example.logprocessor.gateway.model;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Any subset of warm-storage filters. Every condition present is ANDed; values within levels and
+// sourcePrefixes are ORed. Sorted collections keep the canonical form (and so the cache key) order-free.
+public class LogQueryFilter {
+
+    private final SortedSet<String> levels = new TreeSet<>();
+    private final SortedSet<String> sourcePrefixes = new TreeSet<>();
+    private final SortedMap<String, String> metadata = new TreeMap<>();
+    private String source;
+    private String keyword;
+    private String traceId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+
+    public static LogQueryFilter of(String level, String source, String keyword,
+                                    LocalDateTime startTime, LocalDateTime endTime) {
+        LogQueryFilter filter = new LogQueryFilter();
+        if (level != null) {
+            filter.levels.add(level);
+        }
+        filter.source = source;
+        filter.keyword = keyword;
+        filter.startTime = startTime;
+        filter.endTime = endTime;
+        return filter;
+    }
+
+    // True when the filter only uses dimensions the hot tier indexes (a single level, an exact source, a window)
+    public boolean isHotTierCompatible() {
+        return levels.size() <= 1 && sourcePrefixes.isEmpty() && metadata.isEmpty()
+            && keyword == null && traceId == null;
+    }
+
+    // The same conditions restricted to [startTime, endTime]; used to split a query across storage tiers
+    public LogQueryFilter withWindow(LocalDateTime startTime, LocalDateTime endTime) {
+        LogQueryFilter copy = new LogQueryFilter();
+        copy.levels.addAll(levels);
+        copy.sourcePrefixes.addAll(sourcePrefixes);
+        copy.metadata.putAll(metadata);
+        copy.source = source;
+        copy.keyword = keyword;
+        copy.traceId = traceId;
+        copy.startTime = startTime;
+        copy.endTime = endTime;
+        return copy;
+    }
+
+    // In-memory evaluation with the same semantics as LogQuerySql, for tiers that are scanned rather than queried
+    public boolean matches(LogEvent event) {
+        if (event.getTimestamp() == null
+            || (startTime != null && event.getTimestamp().isBefore(startTime))
+            || (endTime != null && event.getTimestamp().isAfter(endTime))) {
+            return false;
+        }
+        if (!levels.isEmpty() && !levels.contains(event.getLevel())) {
+            return false;
+        }
+        if (source != null && !source.equals(event.getSource())) {
+            return false;
+        }
+        if (!sourcePrefixes.isEmpty()
+            && (event.getSource() == null || sourcePrefixes.stream().noneMatch(event.getSource()::startsWith))) {
+            return false;
+        }
+        if (traceId != null && !traceId.equals(event.getTraceId())) {
+            return false;
+        }
+        if (!metadata.isEmpty() && (event.getMetadata() == null
+            || !metadata.entrySet().stream().allMatch(e -> e.getValue().equals(event.getMetadata().get(e.getKey()))))) {
+            return false;
+        }
+        return keyword == null || (event.getMessage() != null
+            && event.getMessage().toLowerCase(Locale.ROOT).contains(keyword.toLowerCase(Locale.ROOT)));
+    }
+
+    public String getSingleLevel() {
+        return levels.isEmpty() ? null : levels.first();
+    }
+
+    public SortedSet<String> getLevels() { return Collections.unmodifiableSortedSet(levels); }
+    public void setLevels(Collection<String> levels) {
+        this.levels.clear();
+        if (levels != null) {
+            levels.stream().filter(l -> l != null && !l.isBlank()).forEach(this.levels::add);
+        }
+    }
+
+    public SortedSet<String> getSourcePrefixes() { return Collections.unmodifiableSortedSet(sourcePrefixes); }
+    public void setSourcePrefixes(Collection<String> sourcePrefixes) {
+        this.sourcePrefixes.clear();
+        if (sourcePrefixes != null) {
+            sourcePrefixes.stream().filter(p -> p != null && !p.isEmpty()).forEach(this.sourcePrefixes::add);
+        }
+    }
+
+    public SortedMap<String, String> getMetadata() { return Collections.unmodifiableSortedMap(metadata); }
+    public void setMetadata(Map<String, String> metadata) {
+        this.metadata.clear();
+        if (metadata != null) {
+            this.metadata.putAll(metadata);
+        }
+    }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public String getKeyword() { return keyword; }
+    public void setKeyword(String keyword) { this.keyword = keyword; }
+
+    public String getTraceId() { return traceId; }
+    public void setTraceId(String traceId) { this.traceId = traceId; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+}
@@ -0,0 +1,20 @@
+package com.example.logprocessor.gateway.model;
+
+// Admission pools; each gets its own adaptive concurrency limit so heavy classes cannot starve cheap ones
+public enum QueryClass {
+    TRACE("trace"),
+    PAGED("paged"),
+    SEARCH("search"),
+    STATS("stats");
+
+    private final String key;
+
+    QueryClass(String key) {
+        this.key = key;
+    }
+
+    // Name used in configuration (log.admission.<key>.*) and metric tags
+    public String getKey() {
+        return key;
+    }
+}
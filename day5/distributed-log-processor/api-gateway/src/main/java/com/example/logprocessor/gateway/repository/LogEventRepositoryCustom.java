@@ -0,0 +1,26 @@
+package com.example.logprocessor.gateway.repository;
+
+import com.example.logprocessor.gateway.model.LogCursor;
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface LogEventRepositoryCustom {
+
+    Page<LogEvent> findMatching(LogQueryFilter filter, Pageable pageable);
+
+    List<LogEvent> findKeyset(LogQueryFilter filter, LogCursor after, boolean ascending, int limit);
+
+    long countMatching(LogQueryFilter filter);
+
+    // Newest first, so the first row seen for a trace id is the one to keep
+    List<LogEvent> findByTraceIds(Collection<String> traceIds);
+
+    // Must be consumed, and closed, inside a transaction
+    Stream<LogEvent> streamMatching(LogQueryFilter filter, int fetchSize);
+}
@@ -0,0 +1,144 @@
+package com.example.logprocessor.gateway.repository;
+
+import com.example.logprocessor.gateway.model.LogCursor;
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Native SQL over log_events built from a LogQueryFilter, so any combination of filters lands on an
+// index-friendly shape (see LogQuerySql). Keyset pages seek past the previous page's last (timestamp, id)
+// instead of scanning and discarding an offset, so page 1000 costs the same as page 1.
+public class LogEventRepositoryImpl implements LogEventRepositoryCustom {
+
+    // Sortable properties and their columns; id is always appended as the tie-breaker
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "timestamp", "timestamp",
+        "level", "level",
+        "source", "source",
+        "traceId", "trace_id",
+        "id", "id"
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<LogEvent> findMatching(LogQueryFilter filter, Pageable pageable) {
+        LogQuerySql sql = LogQuerySql.from(filter);
+        Query query = entityManager.createNativeQuery(
+            "SELECT * FROM log_events" + sql.whereClause() + orderBy(pageable.getSort()), LogEvent.class);
+        bind(query, sql.parameters());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        @SuppressWarnings("unchecked")
+        List<LogEvent> content = query.getResultList();
+        // The count is skipped when the page itself shows the total (first page not full, or the last page)
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(sql));
+    }
+
+    @Override
+    public List<LogEvent> findKeyset(LogQueryFilter filter, LogCursor after, boolean ascending, int limit) {
+        LogQuerySql sql = LogQuerySql.from(filter);
+        if (after != null) {
+            // Row comparison walks idx_timestamp_id (or a composite ending in timestamp, id) from the cursor
+            sql.add(ascending ? "(timestamp, id) > (:cursorTimestamp, :cursorId)" : "(timestamp, id) < (:cursorTimestamp, :cursorId)",
+                    "cursorTimestamp", after.getTimestamp());
+            sql.parameters().put("cursorId", after.getId());
+        }
+
+        String direction = ascending ? "ASC" : "DESC";
+        Query query = entityManager.createNativeQuery(
+            "SELECT * FROM log_events" + sql.whereClause() + " ORDER BY timestamp " + direction + ", id " + direction,
+            LogEvent.class);
+        bind(query, sql.parameters());
+        query.setMaxResults(limit);
+
+        @SuppressWarnings("unchecked")
+        List<LogEvent> rows = query.getResultList();
+        return rows;
+    }
+
+    @Override
+    public long countMatching(LogQueryFilter filter) {
+        return count(LogQuerySql.from(filter));
+    }
+
+    @Override
+    public List<LogEvent> findByTraceIds(Collection<String> traceIds) {
+        // One array parameter instead of an IN list keeps a single statement shape for any batch size,
+        // and still probes idx_trace_id once per element
+        Query query = entityManager.createNativeQuery(
+            "SELECT * FROM log_events WHERE trace_id = ANY(CAST(:traceIds AS varchar[])) ORDER BY timestamp DESC, id DESC",
+            LogEvent.class);
+        query.setParameter("traceIds", traceIds.toArray(new String[0]));
+
+        @SuppressWarnings("unchecked")
+        List<LogEvent> rows = query.getResultList();
+        return rows;
+    }
+
+    @Override
+    public Stream<LogEvent> streamMatching(LogQueryFilter filter, int fetchSize) {
+        LogQuerySql sql = LogQuerySql.from(filter);
+        // Ascending (timestamp, id) walks idx_timestamp_id, so rows flow without a sort step
+        Query query = entityManager.createNativeQuery(
+            "SELECT * FROM log_events" + sql.whereClause() + " ORDER BY timestamp ASC, id ASC", LogEvent.class);
+        bind(query, sql.parameters());
+        // With autocommit off (the surrounding transaction), the Postgres driver fetches through a cursor
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+
+        @SuppressWarnings("unchecked")
+        Stream<LogEvent> rows = query.getResultStream();
+        return rows;
+    }
+
+    private long count(LogQuerySql sql) {
+        Query query = entityManager.createNativeQuery("SELECT COUNT(*) FROM log_events" + sql.whereClause());
+        bind(query, sql.parameters());
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    static String orderBy(Sort sort) {
+        List<String> columns = new ArrayList<>();
+        boolean hasId = false;
+        Sort.Direction lastDirection = Sort.Direction.DESC;
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            columns.add(column + " " + order.getDirection().name());
+            hasId |= column.equals("id");
+            lastDirection = order.getDirection();
+        }
+        if (columns.isEmpty()) {
+            columns.add("timestamp DESC");
+        }
+        if (!hasId) {
+            // A unique tie-breaker keeps offset pages stable when timestamps collide
+            columns.add("id " + lastDirection.name());
+        }
+        return " ORDER BY " + String.join(", ", columns);
+    }
+
+    private static void bind(Query query, Map<String, Object> parameters) {
+        parameters.forEach(query::setParameter);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.logprocessor.gateway.repository;
+
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Renders a LogQueryFilter as a WHERE clause whose shapes match the indexes in init-db.sql:
+//   level = / IN (...)          -> idx_level_timestamp, idx_level_source_timestamp, idx_problem_timestamp (partial)
+//   source = ...                -> idx_source_timestamp
+//   source LIKE 'prefix%'       -> idx_source_pattern (text_pattern_ops)
+//   trace_id = ...              -> idx_trace_id (partial, non-null only)
+//   metadata @> '{"k":"v"}'     -> idx_metadata_gin (all keys folded into one containment)
+//   message ILIKE '%keyword%'   -> idx_message_trgm (pg_trgm; keywords under three characters scan)
+//   timestamp range             -> partition pruning plus the trailing timestamp column of each composite
+final class LogQuerySql {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    private LogQuerySql() {
+    }
+
+    static LogQuerySql from(LogQueryFilter filter) {
+        LogQuerySql sql = new LogQuerySql();
+
+        if (filter.getLevels().size() == 1) {
+            sql.add("level = :level", "level", filter.getSingleLevel());
+        } else if (!filter.getLevels().isEmpty()) {
+            sql.add("level IN (:levels)", "levels", new ArrayList<>(filter.getLevels()));
+        }
+
+        if (filter.getSource() != null) {
+            sql.add("source = :source", "source", filter.getSource());
+        }
+
+        if (!filter.getSourcePrefixes().isEmpty()) {
+            List<String> alternatives = new ArrayList<>();
+            int i = 0;
+            for (String prefix : filter.getSourcePrefixes()) {
+                String name = "sourcePrefix" + i++;
+                alternatives.add("source LIKE :" + name);
+                sql.parameters.put(name, escapeLike(prefix) + "%");
+            }
+            sql.conditions.add(alternatives.size() == 1 ? alternatives.get(0) : "(" + String.join(" OR ", alternatives) + ")");
+        }
+
+        if (filter.getTraceId() != null) {
+            sql.add("trace_id = :traceId", "traceId", filter.getTraceId());
+        }
+
+        if (!filter.getMetadata().isEmpty()) {
+            sql.add("metadata @> CAST(:metadata AS jsonb)", "metadata", toJson(filter.getMetadata()));
+        }
+
+        if (filter.getKeyword() != null) {
+            sql.add("message ILIKE :keyword", "keyword", "%" + escapeLike(filter.getKeyword()) + "%");
+        }
+
+        if (filter.getStartTime() != null) {
+            sql.add("timestamp >= :startTime", "startTime", filter.getStartTime());
+        }
+        if (filter.getEndTime() != null) {
+            sql.add("timestamp <= :endTime", "endTime", filter.getEndTime());
+        }
+
+        return sql;
+    }
+
+    void add(String condition, String name, Object value) {
+        conditions.add(condition);
+        parameters.put(name, value);
+    }
+
+    String whereClause() {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    Map<String, Object> parameters() {
+        return parameters;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String toJson(Map<String, String> metadata) {
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid metadata filter", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.logprocessor.gateway.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads the log_rollups table maintained by the log-consumer. A window sums the rows of every granularity
+// whose bucket starts inside it, so its edges are exact to the minute for the last two days and to the
+// hour or day beyond that.
+@Repository
+public class LogRollupRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public LogRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // One row per distinct combination of the requested dimensions, each with a "count"
+    public List<Map<String, Object>> sumCounts(LocalDateTime since, LocalDateTime until,
+                                               boolean byLevel, boolean bySource) {
+        List<String> dimensions = new ArrayList<>();
+        if (byLevel) {
+            dimensions.add("level");
+        }
+        if (bySource) {
+            dimensions.add("source");
+        }
+
+        String select = dimensions.isEmpty() ? "" : String.join(", ", dimensions) + ", ";
+        String groupBy = dimensions.isEmpty() ? "" : " GROUP BY " + String.join(", ", dimensions) + " ORDER BY count DESC";
+        String sql = "SELECT " + select + "SUM(event_count) AS count FROM log_rollups " +
+                     "WHERE bucket_start >= :since AND bucket_start < :until" + groupBy;
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource("since", since).addValue("until", until);
+        return jdbcTemplate.query(sql, parameters, (rs, rowNum) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String dimension : dimensions) {
+                row.put(dimension, rs.getString(dimension));
+            }
+            row.put("count", rs.getLong("count"));
+            return row;
+        });
+    }
+}
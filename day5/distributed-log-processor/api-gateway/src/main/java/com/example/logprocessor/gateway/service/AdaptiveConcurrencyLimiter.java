@@ -0,0 +1,91 @@
+package com.example.logprocessor.gateway.service;
+
+import java.util.concurrent.TimeUnit;
+
+// AIMD concurrency limit driven by observed latency. A completion slower than the target (or failed) cuts
+// the limit by the backoff ratio, at most once per target interval so one slow burst counts once; a fast
+// completion while the pool is at least half used grows it by permits/limit, about +1 per full window.
+// Requests take weighted permits and wait up to the queue timeout, in a bounded queue, for room.
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyMs,
+                                      double backoffRatio, int maxQueued, long queueTimeoutMs) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.backoffRatio = backoffRatio;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime() - targetLatencyNanos;
+    }
+
+    // The permits actually taken (a request never needs more than the whole current limit), or 0 if rejected
+    public synchronized int tryAcquire(int permits) throws InterruptedException {
+        int needed = Math.max(1, Math.min(permits, (int) limit));
+        if (fits(needed)) {
+            inFlight += needed;
+            return needed;
+        }
+        if (queued >= maxQueued) {
+            return 0;
+        }
+
+        queued++;
+        try {
+            long deadline = System.nanoTime() + queueTimeoutNanos;
+            while (!fits(needed)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return 0;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                needed = Math.max(1, Math.min(permits, (int) limit));
+            }
+            inFlight += needed;
+            return needed;
+        } finally {
+            queued--;
+        }
+    }
+
+    public synchronized void release(int permits, long latencyNanos, boolean succeeded) {
+        boolean wasBusy = inFlight * 2 >= limit;
+        inFlight -= permits;
+
+        long now = System.nanoTime();
+        if (!succeeded || latencyNanos > targetLatencyNanos) {
+            if (now - lastDecreaseNanos >= targetLatencyNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = now;
+            }
+        } else if (wasBusy) {
+            limit = Math.min(maxLimit, limit + (double) permits / limit);
+        }
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private boolean fits(int permits) {
+        return inFlight + permits <= (int) limit;
+    }
+}
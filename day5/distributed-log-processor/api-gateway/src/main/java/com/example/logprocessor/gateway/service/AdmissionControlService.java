@@ -0,0 +1,89 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.QueryClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// One adaptive limiter per query class, configured under log.admission.<class>. Requests are admitted with a
+// number of permits proportional to their estimated cost, before they reach the circuit breaker or a pooled
+// connection; what does not fit within the queue timeout is turned away with a 429.
+@Service
+public class AdmissionControlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlService.class);
+
+    private final Map<QueryClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(QueryClass.class);
+    private final Map<QueryClass, Counter> rejectedCounters = new EnumMap<>(QueryClass.class);
+
+    @Autowired
+    public AdmissionControlService(Environment environment, MeterRegistry meterRegistry) {
+        for (QueryClass queryClass : QueryClass.values()) {
+            String prefix = "log.admission." + queryClass.getKey() + ".";
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                environment.getProperty(prefix + "initial-limit", Integer.class, 4),
+                environment.getProperty(prefix + "min-limit", Integer.class, 1),
+                environment.getProperty(prefix + "max-limit", Integer.class, 16),
+                environment.getProperty(prefix + "target-latency-ms", Long.class, 500L),
+                environment.getProperty(prefix + "backoff-ratio", Double.class, 0.9),
+                environment.getProperty(prefix + "max-queued", Integer.class, 16),
+                environment.getProperty(prefix + "queue-timeout-ms", Long.class, 100L));
+            limiters.put(queryClass, limiter);
+
+            Gauge.builder("log_admission_limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit, in permits")
+                    .tag("class", queryClass.getKey())
+                    .register(meterRegistry);
+            Gauge.builder("log_admission_in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Permits held by admitted queries")
+                    .tag("class", queryClass.getKey())
+                    .register(meterRegistry);
+            rejectedCounters.put(queryClass, Counter.builder("log_admission_rejected_total")
+                    .description("Total number of queries rejected by admission control")
+                    .tag("class", queryClass.getKey())
+                    .register(meterRegistry));
+        }
+    }
+
+    // Null when the class is saturated; otherwise the caller must release the permit when the query completes
+    public Permit tryAdmit(QueryClass queryClass, int cost) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(queryClass);
+        int permits;
+        try {
+            permits = limiter.tryAcquire(cost);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permits = 0;
+        }
+        if (permits == 0) {
+            rejectedCounters.get(queryClass).increment();
+            logger.debug("Rejected {} query: cost={}, limit={}, inFlight={}",
+                       queryClass.getKey(), cost, limiter.getLimit(), limiter.getInFlight());
+            return null;
+        }
+        return new Permit(limiter, permits);
+    }
+
+    public static final class Permit {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final int permits;
+        private final long startNanos = System.nanoTime();
+
+        private Permit(AdaptiveConcurrencyLimiter limiter, int permits) {
+            this.limiter = limiter;
+            this.permits = permits;
+        }
+
+        public void release(boolean succeeded) {
+            limiter.release(permits, System.nanoTime() - startNanos, succeeded);
+        }
+    }
+}
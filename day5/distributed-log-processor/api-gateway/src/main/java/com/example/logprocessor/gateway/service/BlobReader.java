@@ -0,0 +1,82 @@
+package com.example.logprocessor.gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Resolves "blob:<segment>:<offset>:<length>" references written by the log-consumer BlobSegmentStore
+@Service
+public class BlobReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobReader.class);
+    private static final String REF_PREFIX = "blob:";
+
+    private final Path directory;
+
+    public BlobReader(@Value("${log.blob.directory:${log.data-directory}/blobs/}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    public String read(String ref) {
+        if (ref == null || !ref.startsWith(REF_PREFIX)) {
+            return null;
+        }
+        String[] parts = ref.substring(REF_PREFIX.length()).split(":");
+        if (parts.length != 3) {
+            logger.warn("Malformed blob reference: {}", ref);
+            return null;
+        }
+
+        Path segment = directory.resolve(parts[0]).normalize();
+        if (!segment.startsWith(directory.normalize())) {
+            logger.warn("Blob reference outside blob directory: {}", ref);
+            return null;
+        }
+        long offset = Long.parseLong(parts[1]);
+        int length = Integer.parseInt(parts[2]);
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of blob segment " + parts[0]);
+                }
+            }
+            return new String(inflate(buffer.array()), StandardCharsets.UTF_8);
+        } catch (IOException | DataFormatException e) {
+            logger.warn("Failed to read blob {}", ref, e);
+            return null;
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated blob");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
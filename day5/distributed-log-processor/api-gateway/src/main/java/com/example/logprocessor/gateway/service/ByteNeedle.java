@@ -0,0 +1,103 @@
+package com.example.logprocessor.gateway.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// A byte string searched for directly in raw cold-storage bytes, before any JSON decoding. Candidates
+// for the first byte are found eight bytes at a time with the SWAR zero-byte trick (Java 17 has no
+// stable vector API), then verified byte by byte. Case-insensitive needles are ASCII only; the buffer
+// must be little-endian so that the lowest flagged byte is the earliest position.
+final class ByteNeedle {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final long CASE_BITS = 0x2020202020202020L;
+
+    static final ByteNeedle NEWLINE = new ByteNeedle(new byte[] {'\n'}, false);
+
+    private final byte[] bytes;
+    private final boolean ignoreCase;
+    private final long firstBytePattern;
+    private final long foldMask;
+
+    private ByteNeedle(byte[] bytes, boolean ignoreCase) {
+        this.bytes = bytes;
+        this.ignoreCase = ignoreCase;
+        this.firstBytePattern = (bytes[0] & 0xFFL) * ONES;
+        // Forcing bit 0x20 on every byte folds A-Z onto a-z; other bytes may collide, which verification rejects
+        this.foldMask = ignoreCase && isLower(bytes[0]) ? CASE_BITS : 0;
+    }
+
+    static ByteNeedle exact(String value) {
+        return isJsonLiteral(value) ? new ByteNeedle(value.getBytes(StandardCharsets.UTF_8), false) : null;
+    }
+
+    // Null when the value cannot be found verbatim: it is empty, needs JSON escaping or is not plain ASCII
+    static ByteNeedle ignoringCase(String value) {
+        if (!isJsonLiteral(value)) {
+            return null;
+        }
+        byte[] lower = new byte[value.length()];
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                return null;
+            }
+            lower[i] = (byte) Character.toLowerCase(c);
+        }
+        return new ByteNeedle(lower, true);
+    }
+
+    // First position of the needle in buf[from, to), or -1
+    int indexIn(ByteBuffer buf, int from, int to) {
+        int last = to - bytes.length;
+        int i = from;
+        for (; i + Long.BYTES <= to && i <= last; i += Long.BYTES) {
+            long word = (buf.getLong(i) | foldMask) ^ firstBytePattern;
+            long candidates = (word - ONES) & ~word & HIGHS;
+            while (candidates != 0) {
+                int position = i + (Long.numberOfTrailingZeros(candidates) >>> 3);
+                if (position <= last && matchesAt(buf, position)) {
+                    return position;
+                }
+                candidates &= candidates - 1;
+            }
+        }
+        for (; i <= last; i++) {
+            if (matchesAt(buf, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matchesAt(ByteBuffer buf, int position) {
+        for (int j = 0; j < bytes.length; j++) {
+            byte b = buf.get(position + j);
+            if (ignoreCase && b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != bytes[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLower(byte b) {
+        return b >= 'a' && b <= 'z';
+    }
+
+    private static boolean isJsonLiteral(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+// Scans the cold tier written by the log-consumer FileStorageService: one JSON line per event in
+// "<level>-<yyyy-MM-dd>.log", plus rotated "<level>-<yyyy-MM-dd>-<stamp>.log.gz" files (gzip or plain).
+// File names are the only index, so a scan prunes by level and day, then memory-maps each file in
+// split-bytes slices scanned on a fork-join pool. Within a slice the most selective filter value is
+// searched for in the raw bytes and only lines containing it are JSON-decoded.
+@Service
+public class ColdLogReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColdLogReader.class);
+    private static final Pattern FILE_NAME = Pattern.compile("([a-z]+)-(\\d{4}-\\d{2}-\\d{2})(-\\d{8}-\\d{6})?\\.log(\\.gz)?");
+    private static final int INITIAL_OVERHANG_BYTES = 1 << 20;
+    private static final int STREAM_CHUNK_BYTES = 8 << 20;
+
+    @Value("${log.cold.split-bytes:67108864}")
+    private int splitBytes;
+
+    private final Path directory;
+    private final ObjectReader eventReader;
+    private final ForkJoinPool scanPool;
+
+    @Autowired
+    public ColdLogReader(@Value("${log.cold.directory:${log.data-directory}/cold/}") String directory,
+                         @Value("${log.cold.scan-parallelism:0}") int parallelism) {
+        this.directory = Paths.get(directory);
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.eventReader = objectMapper.readerFor(LogEvent.class);
+        this.scanPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // The first limit matches in timestamp order. Files within a day are unordered, but a file only holds
+    // events of its own day, so days are scanned in order in waves wide enough to occupy the pool; once a
+    // wave ends with limit matches in hand the later days cannot contribute and the scan stops, leaving
+    // matched as a lower bound and complete false.
+    public ScanResult scan(LogQueryFilter filter, boolean ascending, int limit) throws IOException {
+        NavigableMap<LocalDate, List<Path>> filesByDay = filesByDay(filter);
+        Comparator<LogEvent> byTime = Comparator.comparing(LogEvent::getTimestamp);
+        Comparator<LogEvent> order = ascending ? byTime.reversed() : byTime;
+        LinePrefilter prefilter = LinePrefilter.of(filter);
+        TopMatches kept = new TopMatches(limit, order);
+
+        NavigableMap<LocalDate, List<Path>> days = ascending ? filesByDay : filesByDay.descendingMap();
+        Iterator<List<Path>> remaining = days.values().iterator();
+        int daysRead = 0;
+        while (remaining.hasNext() && !kept.isFull()) {
+            List<Split> wave = new ArrayList<>();
+            while (remaining.hasNext() && wave.size() < scanPool.getParallelism()) {
+                for (Path file : remaining.next()) {
+                    wave.addAll(splitsOf(file));
+                }
+                daysRead++;
+            }
+            List<ForkJoinTask<TopMatches>> tasks = new ArrayList<>(wave.size());
+            for (Split split : wave) {
+                tasks.add(scanPool.submit(() -> split.scan(this, filter, prefilter, limit, order)));
+            }
+            for (ForkJoinTask<TopMatches> task : tasks) {
+                try {
+                    kept.addAll(task.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    tasks.forEach(t -> t.cancel(true));
+                    throw new IOException("Interrupted during cold scan", e);
+                } catch (ExecutionException e) {
+                    tasks.forEach(t -> t.cancel(true));
+                    throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                }
+            }
+        }
+
+        logger.debug("Cold scan read {} of {} day(s): matched={}", daysRead, days.size(), kept.matched);
+        return new ScanResult(kept.sorted(), kept.matched, daysRead == days.size());
+    }
+
+    private List<Split> splitsOf(Path file) throws IOException {
+        if (isGzip(file)) {
+            return List.of(new Split(file, 0, -1));
+        }
+        long size = Files.size(file);
+        List<Split> splits = new ArrayList<>((int) (size / splitBytes) + 1);
+        for (long start = 0; start < size; start += splitBytes) {
+            splits.add(new Split(file, start, Math.min(size, start + splitBytes)));
+        }
+        return splits;
+    }
+
+    // Lines belong to the split holding their first byte. The mapping runs past the split end to the newline
+    // closing the last such line, growing when that line is longer than the overhang.
+    private TopMatches scanMapped(Path file, long start, long end, LogQueryFilter filter, LinePrefilter prefilter,
+                                  int limit, Comparator<LogEvent> order) throws IOException {
+        TopMatches matches = new TopMatches(limit, order);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long mapFrom = Math.max(0, start - 1);
+            long overhang = INITIAL_OVERHANG_BYTES;
+            while (true) {
+                long mapTo = Math.min(size, end + overhang);
+                ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, mapFrom, mapTo - mapFrom)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                int limitIndex = (int) (mapTo - mapFrom);
+
+                int begin = 0;
+                if (start > 0) {
+                    int newline = ByteNeedle.NEWLINE.indexIn(buf, 0, limitIndex);
+                    if (newline < 0 || mapFrom + newline + 1 >= end) {
+                        // No line starts inside this split, or the one that might is still running on
+                        if (newline < 0 && mapTo < size) {
+                            overhang *= 2;
+                            continue;
+                        }
+                        return matches;
+                    }
+                    begin = newline + 1;
+                }
+
+                int stop = (int) (end - mapFrom) - 1;
+                int closing = stop < limitIndex ? ByteNeedle.NEWLINE.indexIn(buf, Math.max(begin, stop), limitIndex) : -1;
+                if (closing < 0 && mapTo < size) {
+                    overhang *= 2;
+                    continue;
+                }
+                scanLines(buf, begin, closing < 0 ? limitIndex : closing + 1, filter, prefilter, matches);
+                return matches;
+            }
+        }
+    }
+
+    // Rotated files may really be compressed; those cannot be mapped and are inflated chunk by chunk instead
+    private TopMatches scanCompressed(Path file, LogQueryFilter filter, LinePrefilter prefilter,
+                                      int limit, Comparator<LogEvent> order) throws IOException {
+        TopMatches matches = new TopMatches(limit, order);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 65536)) {
+            byte[] chunk = new byte[STREAM_CHUNK_BYTES];
+            int filled = 0;
+            while (true) {
+                int read = in.read(chunk, filled, chunk.length - filled);
+                if (read < 0) {
+                    if (filled > 0) {
+                        scanLines(wrap(chunk), 0, filled, filter, prefilter, matches);
+                    }
+                    return matches;
+                }
+                filled += read;
+                ByteBuffer buf = wrap(chunk);
+                int lastNewline = lastNewline(chunk, filled);
+                if (lastNewline < 0) {
+                    if (filled == chunk.length) {
+                        chunk = Arrays.copyOf(chunk, chunk.length * 2);
+                    }
+                    continue;
+                }
+                scanLines(buf, 0, lastNewline + 1, filter, prefilter, matches);
+                filled -= lastNewline + 1;
+                System.arraycopy(chunk, lastNewline + 1, chunk, 0, filled);
+            }
+        }
+    }
+
+    // Every line in buf[from, to) is complete. With a needle, the scan jumps from hit to hit and only the
+    // lines around hits are ever delimited, let alone decoded.
+    private void scanLines(ByteBuffer buf, int from, int to, LogQueryFilter filter, LinePrefilter prefilter,
+                           TopMatches matches) throws IOException {
+        byte[] line = new byte[4096];
+        int position = from;
+        while (position < to) {
+            int lineStart;
+            if (prefilter.primary != null) {
+                int hit = prefilter.primary.indexIn(buf, position, to);
+                if (hit < 0) {
+                    return;
+                }
+                lineStart = hit;
+                while (lineStart > position && buf.get(lineStart - 1) != '\n') {
+                    lineStart--;
+                }
+            } else {
+                lineStart = position;
+            }
+            int newline = ByteNeedle.NEWLINE.indexIn(buf, lineStart, to);
+            int lineEnd = newline < 0 ? to : newline;
+            position = lineEnd + 1;
+
+            if (lineEnd == lineStart || !prefilter.acceptsRest(buf, lineStart, lineEnd)) {
+                continue;
+            }
+            int length = lineEnd - lineStart;
+            if (line.length < length) {
+                line = new byte[Math.max(length, line.length * 2)];
+            }
+            buf.get(lineStart, line, 0, length);
+            LogEvent event = parse(line, length);
+            if (event != null && filter.matches(event)) {
+                matches.add(event);
+            }
+        }
+    }
+
+    private NavigableMap<LocalDate, List<Path>> filesByDay(LogQueryFilter filter) {
+        NavigableMap<LocalDate, List<Path>> filesByDay = new TreeMap<>();
+        File[] files = directory.toFile().listFiles();
+        if (files == null) {
+            return filesByDay;
+        }
+        LocalDateTime start = filter.getStartTime();
+        LocalDateTime end = filter.getEndTime();
+        for (File file : files) {
+            Matcher matcher = FILE_NAME.matcher(file.getName());
+            if (!matcher.matches()) {
+                continue;
+            }
+            if (!filter.getLevels().isEmpty() && !filter.getLevels().contains(matcher.group(1).toUpperCase(Locale.ROOT))) {
+                continue;
+            }
+            LocalDate day = LocalDate.parse(matcher.group(2));
+            if ((start != null && day.isBefore(start.toLocalDate())) || (end != null && day.isAfter(end.toLocalDate()))) {
+                continue;
+            }
+            filesByDay.computeIfAbsent(day, d -> new ArrayList<>()).add(file.toPath());
+        }
+        return filesByDay;
+    }
+
+    // Rotation renames files to .log.gz without compressing them, so sniff the gzip magic instead of the name
+    private static boolean isGzip(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    private static ByteBuffer wrap(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int lastNewline(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private LogEvent parse(byte[] line, int length) {
+        try {
+            return eventReader.readValue(line, 0, length);
+        } catch (Exception e) {
+            logger.debug("Skipping unparseable cold storage line");
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scanPool.shutdownNow();
+    }
+
+    // One slice of one file; an end of -1 marks a compressed file scanned whole
+    private static final class Split {
+        private final Path file;
+        private final long start;
+        private final long end;
+
+        private Split(Path file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+
+        private TopMatches scan(ColdLogReader reader, LogQueryFilter filter, LinePrefilter prefilter,
+                                int limit, Comparator<LogEvent> order) throws IOException {
+            return end < 0
+                ? reader.scanCompressed(file, filter, prefilter, limit, order)
+                : reader.scanMapped(file, start, end, filter, prefilter, limit, order);
+        }
+    }
+
+    // Byte needles derived from the filter, most selective first; a line lacking any of them cannot match
+    private static final class LinePrefilter {
+        private final ByteNeedle primary;
+        private final List<ByteNeedle> rest;
+
+        private LinePrefilter(List<ByteNeedle> needles) {
+            this.primary = needles.isEmpty() ? null : needles.get(0);
+            this.rest = needles.isEmpty() ? List.of() : needles.subList(1, needles.size());
+        }
+
+        private static LinePrefilter of(LogQueryFilter filter) {
+            List<ByteNeedle> needles = new ArrayList<>(3);
+            addIfPresent(needles, ByteNeedle.exact(filter.getTraceId()));
+            addIfPresent(needles, ByteNeedle.ignoringCase(filter.getKeyword()));
+            addIfPresent(needles, ByteNeedle.exact(filter.getSource()));
+            return new LinePrefilter(needles);
+        }
+
+        private static void addIfPresent(List<ByteNeedle> needles, ByteNeedle needle) {
+            if (needle != null) {
+                needles.add(needle);
+            }
+        }
+
+        private boolean acceptsRest(ByteBuffer buf, int lineStart, int lineEnd) {
+            for (ByteNeedle needle : rest) {
+                if (needle.indexIn(buf, lineStart, lineEnd) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Bounded heap of the best limit events seen; the head is the worst one kept
+    private static final class TopMatches {
+        private final int limit;
+        private final Comparator<LogEvent> order;
+        private final PriorityQueue<LogEvent> heap;
+        private long matched;
+
+        private TopMatches(int limit, Comparator<LogEvent> order) {
+            this.limit = limit;
+            this.order = order;
+            this.heap = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)), order);
+        }
+
+        private void add(LogEvent event) {
+            matched++;
+            offer(event);
+        }
+
+        private void addAll(TopMatches other) {
+            matched += other.matched;
+            other.heap.forEach(this::offer);
+        }
+
+        private void offer(LogEvent event) {
+            if (heap.size() < limit) {
+                heap.add(event);
+            } else if (limit > 0 && order.compare(event, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(event);
+            }
+        }
+
+        private boolean isFull() {
+            return limit > 0 && heap.size() >= limit;
+        }
+
+        private List<LogEvent> sorted() {
+            List<LogEvent> events = new ArrayList<>(heap);
+            events.sort(order.reversed());
+            return events;
+        }
+    }
+
+    public static final class ScanResult {
+        private final List<LogEvent> events;
+        private final long matched;
+        private final boolean complete;
+
+        private ScanResult(List<LogEvent> events, long matched, boolean complete) {
+            this.events = events;
+            this.matched = matched;
+            this.complete = complete;
+        }
+
+        public List<LogEvent> getEvents() { return events; }
+
+        public long getMatched() { return matched; }
+
+        public boolean isComplete() { return complete; }
+    }
+}
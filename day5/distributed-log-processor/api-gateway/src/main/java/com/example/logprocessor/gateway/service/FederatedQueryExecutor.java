@@ -0,0 +1,311 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import com.example.logprocessor.gateway.repository.LogEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Splits a timestamp-ordered query across tiers: warm is the source of truth back to warm-retention-days and
+// cold covers what is older. Hot only supplements the last hot-freshness-seconds, which the warm write-behind
+// may not have flushed yet; its entries are dropped where warm already returned the same event. Tiers are
+// queried concurrently, each for only the first offset+size rows, and the sorted results are k-way merged.
+@Service
+public class FederatedQueryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FederatedQueryExecutor.class);
+
+    // Window boundaries are exclusive on the newer tier's side; the warm tier stores microseconds
+    private static final long BOUNDARY_MICROS = 1;
+
+    @Value("${log.query.federated.hot-freshness-seconds:10}")
+    private int hotFreshnessSeconds;
+
+    @Value("${log.query.federated.warm-retention-days:30}")
+    private int warmRetentionDays;
+
+    @Value("${log.query.federated.max-rows:10000}")
+    private int maxRows;
+
+    @Value("${log.query.federated.tier-timeout-ms:10000}")
+    private long tierTimeoutMs;
+
+    private final HotLogStore hotLogStore;
+    private final LogEventRepository logEventRepository;
+    private final ColdLogReader coldLogReader;
+    private final ExecutorService executor;
+    private final Map<String, Timer> tierTimers = new HashMap<>();
+
+    @Autowired
+    public FederatedQueryExecutor(HotLogStore hotLogStore, LogEventRepository logEventRepository,
+                                  ColdLogReader coldLogReader, MeterRegistry meterRegistry,
+                                  @Value("${log.query.federated.threads:6}") int threads) {
+        this.hotLogStore = hotLogStore;
+        this.logEventRepository = logEventRepository;
+        this.coldLogReader = coldLogReader;
+        for (String tier : List.of("hot", "warm", "cold")) {
+            tierTimers.put(tier, Timer.builder("log_query_tier_duration")
+                    .description("Time taken by each storage tier of a federated query")
+                    .tag("tier", tier)
+                    .register(meterRegistry));
+        }
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "log-query-tier");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Only timestamp order can be merged across tiers
+    public static boolean canFederate(Pageable pageable) {
+        Sort.Order timestampOrder = pageable.getSort().getOrderFor("timestamp");
+        return pageable.getSort().isUnsorted()
+            || (timestampOrder != null && pageable.getSort().stream().count() == 1);
+    }
+
+    public Page<LogEvent> query(LogQueryFilter filter, Pageable pageable) {
+        Sort.Order timestampOrder = pageable.getSort().getOrderFor("timestamp");
+        boolean ascending = timestampOrder != null && timestampOrder.isAscending();
+        long needed = pageable.getOffset() + pageable.getPageSize();
+        List<TierQuery> tiers = plan(filter, LocalDateTime.now(ZoneOffset.UTC));
+        if (needed > maxRows) {
+            // Each tier would have to return every row up to the page. Without cold, deep pages are served by
+            // warm alone, as before federation; the hot supplement only covers the newest rows anyway.
+            if (tiers.stream().anyMatch(tier -> tier.tier.equals("cold"))) {
+                throw new IllegalArgumentException("Queries reaching cold storage are limited to the first " + maxRows + " rows");
+            }
+            return logEventRepository.findMatching(filter, pageable);
+        }
+        int limit = (int) needed;
+
+        for (TierQuery tier : tiers) {
+            tier.result = CompletableFuture.supplyAsync(() -> runTier(tier, ascending, limit), executor);
+        }
+
+        long total = 0;
+        boolean exact = true;
+        Set<String> warmKeys = new HashSet<>();
+        TierResult hot = null;
+        List<Iterator<LogEvent>> streams = new ArrayList<>(tiers.size());
+        for (TierQuery tier : tiers) {
+            if (tier.tier.equals("hot")) {
+                hot = awaitSupplement(tier);
+                continue;
+            }
+            TierResult result = await(tier);
+            total += result.total;
+            exact &= result.exact;
+            streams.add(result.events.iterator());
+            if (tier.tier.equals("warm")) {
+                result.events.forEach(event -> warmKeys.add(identityOf(event)));
+            }
+        }
+        if (hot != null) {
+            List<LogEvent> unflushed = hot.events.stream().filter(event -> !warmKeys.contains(identityOf(event))).toList();
+            total += unflushed.size();
+            // Hot rows beyond those fetched may or may not have reached warm yet
+            exact &= hot.total == hot.events.size();
+            streams.add(unflushed.iterator());
+        }
+
+        List<LogEvent> merged = merge(streams, ascending, limit);
+        List<LogEvent> content = merged.size() > pageable.getOffset()
+            ? merged.subList((int) pageable.getOffset(), merged.size())
+            : List.of();
+
+        // A cold scan that stopped early, or a partly fetched hot supplement, only gives a lower bound; keep one
+        // more row in reach so the page still reports that a next page exists
+        if (!exact) {
+            total = Math.max(total, needed + 1);
+        }
+        logger.debug("Federated query over {}: total={}{}", tiers.stream().map(t -> t.tier).toList(),
+                   total, exact ? "" : "+");
+        return new PageImpl<>(new ArrayList<>(content), pageable, total);
+    }
+
+    // An open-ended start keeps the query on warm (plus the hot supplement); cold files are only scanned
+    // when the caller explicitly asks for a window older than warm retention
+    private List<TierQuery> plan(LogQueryFilter filter, LocalDateTime now) {
+        LocalDateTime start = filter.getStartTime();
+        LocalDateTime end = filter.getEndTime() != null ? filter.getEndTime() : now;
+        LocalDateTime freshStart = now.minusSeconds(hotFreshnessSeconds);
+        LocalDateTime warmStart = now.minusDays(warmRetentionDays);
+        if (start != null && start.isAfter(end)) {
+            return List.of();
+        }
+
+        List<TierQuery> tiers = new ArrayList<>(3);
+        if (filter.isHotTierCompatible() && !end.isBefore(freshStart)) {
+            tiers.add(new TierQuery("hot", filter.withWindow(max(start, freshStart), end)));
+        }
+        LocalDateTime warmFrom = start != null ? max(start, warmStart) : null;
+        if (!end.isBefore(warmFrom != null ? warmFrom : LocalDateTime.MIN)) {
+            tiers.add(new TierQuery("warm", filter.withWindow(warmFrom, end)));
+        }
+        if (start != null && start.isBefore(warmStart)) {
+            LocalDateTime coldEnd = min(end, warmStart.minus(BOUNDARY_MICROS, ChronoUnit.MICROS));
+            if (!coldEnd.isBefore(start)) {
+                tiers.add(new TierQuery("cold", filter.withWindow(start, coldEnd)));
+            }
+        }
+        return tiers;
+    }
+
+    private TierResult runTier(TierQuery tier, boolean ascending, int limit) {
+        Timer.Sample sample = Timer.start();
+        try {
+            switch (tier.tier) {
+                case "hot":
+                    Page<LogEvent> hot = hotLogStore.queryRange(tier.filter.getSingleLevel(), tier.filter.getSource(),
+                        tier.filter.getStartTime(), tier.filter.getEndTime(), ascending, PageRequest.of(0, limit));
+                    return new TierResult(hot.getContent(), hot.getTotalElements(), true);
+                case "warm":
+                    return runWarm(tier.filter, ascending, limit);
+                default:
+                    ColdLogReader.ScanResult cold = coldLogReader.scan(tier.filter, ascending, limit);
+                    return new TierResult(cold.getEvents(), cold.getMatched(), cold.isComplete());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to query " + tier.tier + " storage", e);
+        } finally {
+            sample.stop(tierTimers.get(tier.tier));
+        }
+    }
+
+    private TierResult runWarm(LogQueryFilter filter, boolean ascending, int limit) {
+        Sort sort = Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, "timestamp");
+        Page<LogEvent> warm = logEventRepository.findMatching(filter, PageRequest.of(0, limit, sort));
+        return new TierResult(warm.getContent(), warm.getTotalElements(), true);
+    }
+
+    private TierResult await(TierQuery tier) {
+        try {
+            return tier.result.get(tierTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + tier.tier + " storage", e);
+        } catch (TimeoutException e) {
+            tier.result.cancel(true);
+            throw new IllegalStateException("Timed out waiting for " + tier.tier + " storage", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    // The hot supplement is best effort: without it the page is only as fresh as the warm tier
+    private TierResult awaitSupplement(TierQuery tier) {
+        try {
+            return await(tier);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to query hot storage, serving the page from warm storage only", e);
+            return null;
+        }
+    }
+
+    // Hot entries carry no database id, so an event is recognised across tiers by what the producer sent.
+    // The warm tier stores microseconds.
+    private static String identityOf(LogEvent event) {
+        return event.getTimestamp().truncatedTo(ChronoUnit.MICROS) + "|" + event.getLevel() + "|"
+            + event.getSource() + "|" + event.getTraceId() + "|" + event.getMessage();
+    }
+
+    // Each stream is already sorted; the heap holds one head per stream and stops at limit
+    static List<LogEvent> merge(List<Iterator<LogEvent>> streams, boolean ascending, int limit) {
+        Comparator<StreamHead> order = Comparator.comparing(head -> head.event.getTimestamp());
+        if (!ascending) {
+            order = order.reversed();
+        }
+        PriorityQueue<StreamHead> heads = new PriorityQueue<>(Math.max(1, streams.size()), order);
+        for (Iterator<LogEvent> stream : streams) {
+            if (stream.hasNext()) {
+                heads.add(new StreamHead(stream.next(), stream));
+            }
+        }
+
+        List<LogEvent> merged = new ArrayList<>(limit);
+        while (!heads.isEmpty() && merged.size() < limit) {
+            StreamHead head = heads.poll();
+            merged.add(head.event);
+            if (head.stream.hasNext()) {
+                heads.add(new StreamHead(head.stream.next(), head.stream));
+            }
+        }
+        return merged;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a == null || a.isBefore(b) ? b : a;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? b : a;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class TierQuery {
+        private final String tier;
+        private final LogQueryFilter filter;
+        private CompletableFuture<TierResult> result;
+
+        private TierQuery(String tier, LogQueryFilter filter) {
+            this.tier = tier;
+            this.filter = filter;
+        }
+    }
+
+    private static final class TierResult {
+        private final List<LogEvent> events;
+        private final long total;
+        private final boolean exact;
+
+        private TierResult(List<LogEvent> events, long total, boolean exact) {
+            this.events = events;
+            this.total = total;
+            this.exact = exact;
+        }
+    }
+
+    private static final class StreamHead {
+        private final LogEvent event;
+        private final Iterator<LogEvent> stream;
+
+        private StreamHead(LogEvent event, Iterator<LogEvent> stream) {
+            this.event = event;
+            this.stream = stream;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Reads the hot tier written by the log-consumer HotStorageStage (hourly buckets of an event hash keyed by
+// Kafka position, per level/source time-index sorted sets, a set of the dimensions present in each bucket
+// and a trace id -> position hash).
+@Service
+public class HotLogStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotLogStore.class);
+    private static final String EVENTS_PREFIX = "log:hot:events:";
+    private static final String INDEX_PREFIX = "log:hot:idx:";
+    private static final String DIMENSIONS_PREFIX = "log:hot:dims:";
+    private static final String TRACES_PREFIX = "log:hot:traces:";
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final Duration HOT_STORAGE_TTL = Duration.ofHours(24);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public HotLogStore(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        // Entries are the producer's payload verbatim and may carry fields the gateway does not map
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public boolean covers(LocalDateTime startTime) {
+        return startTime != null && !startTime.isBefore(LocalDateTime.now(ZoneOffset.UTC).minus(HOT_STORAGE_TTL));
+    }
+
+    public LogEvent findByTraceId(String traceId) {
+        return findByTraceIds(List.of(traceId)).get(traceId);
+    }
+
+    // Two pipelined round trips for any number of ids: every live bucket's trace hash is probed with one
+    // HMGET, then the events found are fetched with one HMGET per bucket. The newest bucket holding an id wins.
+    public Map<String, LogEvent> findByTraceIds(Collection<String> traceIds) {
+        List<String> buckets = bucketsBetween(LocalDateTime.now(ZoneOffset.UTC).minus(HOT_STORAGE_TTL), LocalDateTime.now(ZoneOffset.UTC));
+        List<String> ids = new ArrayList<>(traceIds);
+
+        List<Object> positions = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (int i = buckets.size() - 1; i >= 0; i--) {
+                    ops.<String, String>opsForHash().multiGet(TRACES_PREFIX + buckets.get(i), ids);
+                }
+                return null;
+            }
+        });
+
+        Map<String, IndexHit> hitsByTraceId = new LinkedHashMap<>();
+        for (int i = 0; i < positions.size(); i++) {
+            String bucket = buckets.get(buckets.size() - 1 - i);
+            List<?> values = (List<?>) positions.get(i);
+            for (int j = 0; j < ids.size(); j++) {
+                if (values.get(j) != null && !hitsByTraceId.containsKey(ids.get(j))) {
+                    hitsByTraceId.put(ids.get(j), new IndexHit(bucket, values.get(j).toString(), null));
+                }
+            }
+        }
+        if (hitsByTraceId.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, LogEvent> found = new LinkedHashMap<>();
+        Map<String, LogEvent> byPosition = fetchEventsByKey(hitsByTraceId.values());
+        hitsByTraceId.forEach((traceId, hit) -> {
+            LogEvent event = byPosition.get(hit.bucket + ":" + hit.field);
+            if (event != null) {
+                found.put(traceId, event);
+            }
+        });
+        return found;
+    }
+
+    public Page<LogEvent> queryRange(String level, String source, LocalDateTime startTime,
+                                     LocalDateTime endTime, boolean ascending, Pageable pageable) {
+        LocalDateTime rangeEnd = endTime != null ? endTime : LocalDateTime.now(ZoneOffset.UTC);
+        List<String> buckets = bucketsBetween(startTime, rangeEnd);
+        double min = toScore(startTime);
+        double max = toScore(rangeEnd);
+
+        List<String> indexKeys = findIndexKeys(buckets, level, source);
+        if (indexKeys.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+
+        // Each index only needs to contribute its first offset+size entries to the merged page
+        long needed = pageable.getOffset() + pageable.getPageSize();
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (String indexKey : indexKeys) {
+                    ops.opsForZSet().count(indexKey, min, max);
+                    if (ascending) {
+                        ops.opsForZSet().rangeByScoreWithScores(indexKey, min, max, 0, needed);
+                    } else {
+                        ops.opsForZSet().reverseRangeByScoreWithScores(indexKey, min, max, 0, needed);
+                    }
+                }
+                return null;
+            }
+        });
+
+        long total = 0;
+        List<IndexHit> hits = new ArrayList<>();
+        for (int i = 0; i < indexKeys.size(); i++) {
+            total += ((Number) results.get(i * 2)).longValue();
+            String bucket = bucketOf(indexKeys.get(i));
+            @SuppressWarnings("unchecked")
+            Set<ZSetOperations.TypedTuple<String>> tuples = (Set<ZSetOperations.TypedTuple<String>>) results.get(i * 2 + 1);
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                hits.add(new IndexHit(bucket, tuple.getValue(), tuple.getScore()));
+            }
+        }
+
+        Comparator<IndexHit> byTime = Comparator.comparingDouble(hit -> hit.score);
+        hits.sort(ascending ? byTime : byTime.reversed());
+        List<IndexHit> pageHits = hits.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+
+        return new PageImpl<>(fetchEvents(pageHits), pageable, total);
+    }
+
+    private List<String> findIndexKeys(List<String> buckets, String level, String source) {
+        List<Object> dimensionSets = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                buckets.forEach(bucket -> ops.opsForSet().members(DIMENSIONS_PREFIX + bucket));
+                return null;
+            }
+        });
+
+        List<String> indexKeys = new ArrayList<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Collection<String> dimensions = (Collection<String>) dimensionSets.get(i);
+            for (String dimension : dimensions) {
+                String[] parts = dimension.split(":", 2);
+                if ((level == null || level.equals(parts[0])) && (source == null || source.equals(parts[1]))) {
+                    indexKeys.add(INDEX_PREFIX + buckets.get(i) + ":" + dimension);
+                }
+            }
+        }
+        return indexKeys;
+    }
+
+    private List<LogEvent> fetchEvents(List<IndexHit> hits) {
+        Map<String, LogEvent> byKey = fetchEventsByKey(hits);
+        List<LogEvent> events = new ArrayList<>(hits.size());
+        for (IndexHit hit : hits) {
+            LogEvent event = byKey.get(hit.bucket + ":" + hit.field);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    // Parsed events keyed by "<bucket>:<position>", one HMGET per bucket in a single round trip
+    private Map<String, LogEvent> fetchEventsByKey(Collection<IndexHit> hits) {
+        Map<String, List<String>> fieldsByBucket = new LinkedHashMap<>();
+        for (IndexHit hit : hits) {
+            fieldsByBucket.computeIfAbsent(hit.bucket, b -> new ArrayList<>()).add(hit.field);
+        }
+
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                fieldsByBucket.forEach((bucket, fields) ->
+                        ops.<String, String>opsForHash().multiGet(EVENTS_PREFIX + bucket, fields));
+                return null;
+            }
+        });
+
+        Map<String, LogEvent> byKey = new LinkedHashMap<>();
+        int i = 0;
+        for (Map.Entry<String, List<String>> entry : fieldsByBucket.entrySet()) {
+            List<?> values = (List<?>) results.get(i++);
+            for (int j = 0; j < entry.getValue().size(); j++) {
+                if (values.get(j) != null) {
+                    LogEvent event = parse(values.get(j).toString());
+                    if (event != null) {
+                        byKey.put(entry.getKey() + ":" + entry.getValue().get(j), event);
+                    }
+                }
+            }
+        }
+        return byKey;
+    }
+
+    private LogEvent parse(String json) {
+        try {
+            return objectMapper.readValue(json, LogEvent.class);
+        } catch (Exception e) {
+            logger.warn("Failed to parse hot storage entry", e);
+            return null;
+        }
+    }
+
+    private static List<String> bucketsBetween(LocalDateTime start, LocalDateTime end) {
+        List<String> buckets = new ArrayList<>();
+        for (LocalDateTime hour = start.truncatedTo(ChronoUnit.HOURS); !hour.isAfter(end); hour = hour.plusHours(1)) {
+            buckets.add(hour.format(BUCKET_FORMAT));
+        }
+        return buckets;
+    }
+
+    private static String bucketOf(String indexKey) {
+        return indexKey.substring(INDEX_PREFIX.length(), INDEX_PREFIX.length() + 10);
+    }
+
+    private static double toScore(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static final class IndexHit {
+        private final String bucket;
+        private final String field;
+        private final double score;
+
+        private IndexHit(String bucket, String field, Double score) {
+            this.bucket = bucket;
+            this.field = field;
+            this.score = score != null ? score : 0;
+        }
+    }
+}
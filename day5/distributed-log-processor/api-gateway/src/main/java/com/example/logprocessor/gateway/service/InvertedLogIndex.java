@@ -0,0 +1,252 @@
+package com.example.logprocessor.gateway.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Token-level inverted index over warm-storage messages, sharded by hour. Each shard numbers its documents
+// densely (0, 1, 2, ...) so posting lists are compact roaring bitmaps, and maps those numbers back to
+// log_events ids. Shards older than retention-hours are dropped whole.
+@Service
+public class InvertedLogIndex {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    @Value("${log.search.index.retention-hours:24}")
+    private int retentionHours;
+
+    private final NavigableMap<LocalDateTime, Shard> shards = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public InvertedLogIndex(MeterRegistry meterRegistry) {
+        Gauge.builder("log_search_index_documents", this, InvertedLogIndex::documentCount)
+                .description("Number of log events held in the in-process search index")
+                .register(meterRegistry);
+        Gauge.builder("log_search_index_shards", this, index -> index.shardCount())
+                .description("Number of hourly shards in the in-process search index")
+                .register(meterRegistry);
+    }
+
+    public void add(long id, LocalDateTime timestamp, String message) {
+        LocalDateTime hour = timestamp.truncatedTo(ChronoUnit.HOURS);
+        if (hour.isBefore(oldestRetainedHour())) {
+            return;
+        }
+        List<String> tokens = tokenize(message);
+
+        lock.writeLock().lock();
+        try {
+            Shard shard = shards.computeIfAbsent(hour, h -> new Shard());
+            int doc = shard.addDocument(id);
+            for (String token : tokens) {
+                shard.postings.computeIfAbsent(token, t -> new RoaringBitmap()).add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Hours before this are not (or no longer) indexed; searches over them must go to the database
+    public LocalDateTime oldestRetainedHour() {
+        return LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS).minusHours(retentionHours - 1L);
+    }
+
+    public void evictExpiredShards() {
+        lock.writeLock().lock();
+        try {
+            shards.headMap(oldestRetainedHour(), false).clear();
+            // Past hours only receive stragglers, so their bitmaps are worth run-length compacting once
+            LocalDateTime currentHour = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+            for (Shard shard : shards.headMap(currentHour, false).values()) {
+                if (!shard.optimized) {
+                    shard.postings.values().forEach(RoaringBitmap::runOptimize);
+                    shard.optimized = true;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Candidate ids, newest shard first. Terms and prefixes are matched exactly against the postings;
+    // a phrase only requires all its tokens here, the caller verifies adjacency on the fetched rows.
+    public List<Long> search(SearchQuery query, int limit) {
+        List<Long> ids = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Shard shard : shards.descendingMap().values()) {
+                RoaringBitmap matches = shard.evaluate(query);
+                if (matches == null) {
+                    continue;
+                }
+                // Highest doc numbers are the most recently indexed rows
+                int[] docs = matches.toArray();
+                for (int i = docs.length - 1; i >= 0 && ids.size() < limit; i--) {
+                    ids.add(shard.ids[docs[i]]);
+                }
+                if (ids.size() >= limit) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean tokenChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                int length = i - start;
+                if (length >= MIN_TOKEN_LENGTH && length <= MAX_TOKEN_LENGTH) {
+                    tokens.add(lower.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private long documentCount() {
+        lock.readLock().lock();
+        try {
+            return shards.values().stream().mapToLong(shard -> shard.size).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int shardCount() {
+        lock.readLock().lock();
+        try {
+            return shards.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A parsed search string: bare words are terms, word* is a prefix and "quoted words" is a phrase.
+    // All clauses are ANDed.
+    public static final class SearchQuery {
+
+        private final List<String> terms = new ArrayList<>();
+        private final List<String> prefixes = new ArrayList<>();
+        private final List<List<String>> phrases = new ArrayList<>();
+
+        public static SearchQuery parse(String query) {
+            SearchQuery parsed = new SearchQuery();
+            int i = 0;
+            while (i < query.length()) {
+                char c = query.charAt(i);
+                if (c == '"') {
+                    int close = query.indexOf('"', i + 1);
+                    int end = close < 0 ? query.length() : close;
+                    List<String> phrase = tokenize(query.substring(i + 1, end));
+                    if (phrase.size() == 1) {
+                        parsed.terms.add(phrase.get(0));
+                    } else if (!phrase.isEmpty()) {
+                        parsed.phrases.add(phrase);
+                    }
+                    i = end + 1;
+                } else if (Character.isWhitespace(c)) {
+                    i++;
+                } else {
+                    int end = i;
+                    while (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                        end++;
+                    }
+                    String word = query.substring(i, end);
+                    if (word.endsWith("*")) {
+                        List<String> prefix = tokenize(word.substring(0, word.length() - 1));
+                        if (prefix.size() == 1) {
+                            parsed.prefixes.add(prefix.get(0));
+                        }
+                    } else {
+                        parsed.terms.addAll(tokenize(word));
+                    }
+                    i = end;
+                }
+            }
+            return parsed;
+        }
+
+        public boolean isEmpty() {
+            return terms.isEmpty() && prefixes.isEmpty() && phrases.isEmpty();
+        }
+
+        public List<String> getTerms() { return terms; }
+
+        public List<String> getPrefixes() { return prefixes; }
+
+        public List<List<String>> getPhrases() { return phrases; }
+    }
+
+    private static final class Shard {
+
+        private final TreeMap<String, RoaringBitmap> postings = new TreeMap<>();
+        private long[] ids = new long[1024];
+        private int size;
+        private boolean optimized;
+
+        private int addDocument(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            return size++;
+        }
+
+        // Null when some clause has no postings in this shard
+        private RoaringBitmap evaluate(SearchQuery query) {
+            List<RoaringBitmap> clauses = new ArrayList<>();
+            for (String term : query.terms) {
+                clauses.add(postings.get(term));
+            }
+            for (List<String> phrase : query.phrases) {
+                phrase.forEach(token -> clauses.add(postings.get(token)));
+            }
+            for (String prefix : query.prefixes) {
+                Map<String, RoaringBitmap> expansion = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+                clauses.add(expansion.isEmpty() ? null : RoaringBitmap.or(expansion.values().iterator()));
+            }
+            if (clauses.isEmpty() || clauses.contains(null)) {
+                return null;
+            }
+
+            // Intersect the rarest posting lists first so the running result shrinks fastest
+            clauses.sort((a, b) -> Integer.compare(a.getCardinality(), b.getCardinality()));
+            RoaringBitmap result = clauses.get(0).clone();
+            for (int i = 1; i < clauses.size() && !result.isEmpty(); i++) {
+                result.and(clauses.get(i));
+            }
+            return result.isEmpty() ? null : result;
+        }
+    }
+}
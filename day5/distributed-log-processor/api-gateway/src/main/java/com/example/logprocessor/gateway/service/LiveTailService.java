@@ -0,0 +1,156 @@
+package com.example.logprocessor.gateway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Fans the log-events topic out to live-tail clients. One consumer per gateway instance, in a group of its
+// own so it sees every partition, runs only while at least one client is connected and starts from the end
+// of each partition every time. Each record is parsed once and offered to every matching subscription's bounded buffer.
+@Service
+public class LiveTailService implements ConsumerSeekAware {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveTailService.class);
+    public static final String LISTENER_ID = "log-live-tail";
+
+    @Value("${log.tail.buffer-size:1000}")
+    private int bufferSize;
+
+    @Value("${log.tail.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sender;
+    private final CopyOnWriteArrayList<TailSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Counter droppedCounter;
+
+    @Autowired
+    public LiveTailService(KafkaListenerEndpointRegistry listenerRegistry,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${log.tail.sender-threads:4}") int senderThreads) {
+        this.listenerRegistry = listenerRegistry;
+        this.objectMapper = objectMapper;
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "log-tail-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.droppedCounter = Counter.builder("log_tail_dropped_events_total")
+                .description("Total number of live-tail lines dropped because a client's buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("log_tail_subscribers", subscriptions, CopyOnWriteArrayList::size)
+                .description("Number of connected live-tail clients")
+                .register(meterRegistry);
+    }
+
+    // Null when the subscriber limit is reached
+    public TailSubscription subscribe(Set<String> levels, String source, String keyword, TailSubscription.Sink sink) {
+        TailSubscription subscription = new TailSubscription(levels, source, keyword, bufferSize, sink, sender);
+        synchronized (this) {
+            if (subscriptions.size() >= maxSubscribers) {
+                return null;
+            }
+            subscriptions.add(subscription);
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+            if (container != null && !container.isRunning()) {
+                logger.info("Starting live-tail consumer for first subscriber");
+                container.start();
+            }
+        }
+        logger.info("Live-tail subscriber added: levels={}, source={}, keyword={}, subscribers={}",
+                   levels, source, keyword, subscriptions.size());
+        return subscription;
+    }
+
+    public void unsubscribe(TailSubscription subscription) {
+        subscription.close();
+        synchronized (this) {
+            if (!subscriptions.remove(subscription)) {
+                return;
+            }
+            if (subscriptions.isEmpty()) {
+                MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+                if (container != null && container.isRunning()) {
+                    logger.info("Stopping live-tail consumer, no subscribers left");
+                    container.stop();
+                }
+            }
+        }
+        logger.info("Live-tail subscriber removed: subscribers={}", subscriptions.size());
+    }
+
+    // The group keeps committed offsets across a stop and restart, and auto.offset.reset only applies to its
+    // first start, so without this a new subscriber would be replayed everything published while nobody tailed
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    @KafkaListener(id = LISTENER_ID, topics = "log-events", autoStartup = "false",
+                   groupId = "api-gateway-tail-${random.uuid}",
+                   properties = {"auto.offset.reset=latest"})
+    public void onRecord(ConsumerRecord<String, String> record) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        String level;
+        String source;
+        String message;
+        try {
+            JsonNode node = objectMapper.readTree(record.value());
+            level = node.path("level").asText(null);
+            source = node.path("source").asText(null);
+            message = node.path("message").asText(null);
+        } catch (Exception e) {
+            logger.debug("Skipping unparseable record at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            return;
+        }
+
+        for (TailSubscription subscription : subscriptions) {
+            if (subscription.isClosed()) {
+                unsubscribe(subscription);
+            } else if (subscription.matches(level, source, message)) {
+                droppedCounter.increment(subscription.offer(record.value()));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${log.tail.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        for (TailSubscription subscription : subscriptions) {
+            subscription.heartbeat();
+            if (subscription.isClosed()) {
+                unsubscribe(subscription);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(TailSubscription::close);
+        sender.shutdownNow();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import com.example.logprocessor.gateway.repository.LogEventRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Streams matching log events as NDJSON from a server-side cursor. Rows are fetched fetch-size at a time
+// inside a read-only transaction and detached once written, so heap use stays flat regardless of row count.
+// Writes block when the client reads slowly, which in turn holds the cursor back.
+@Service
+public class LogExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogExportService.class);
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+
+    @Value("${log.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${log.export.flush-every-rows:1000}")
+    private int flushEveryRows;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LogEventRepository logEventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore exportSlots;
+    private final Counter exportedRowsCounter;
+
+    @Autowired
+    public LogExportService(LogEventRepository logEventRepository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${log.export.max-concurrent:2}") int maxConcurrent) {
+        this.logEventRepository = logEventRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Each export pins a pooled connection for its whole duration
+        this.exportSlots = new Semaphore(maxConcurrent);
+        this.exportedRowsCounter = Counter.builder("log_export_rows_total")
+                .description("Total number of log events written by NDJSON exports")
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquireSlot() {
+        return exportSlots.tryAcquire();
+    }
+
+    public void releaseSlot() {
+        exportSlots.release();
+    }
+
+    public void export(LogQueryFilter filter, OutputStream response, boolean gzip) throws IOException {
+        OutputStream out = gzip ? new GZIPOutputStream(response, GZIP_BUFFER_BYTES, true) : response;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long rows = readOnlyTransaction.execute(status -> writeRows(filter, generator));
+            generator.flush();
+            logger.info("Export finished: rows={}, gzip={}", rows, gzip);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction and cursor are already closed
+            logger.warn("Export aborted: {}", e.getCause().getMessage());
+            throw e.getCause();
+        }
+        if (gzip) {
+            ((GZIPOutputStream) out).finish();
+        }
+    }
+
+    private long writeRows(LogQueryFilter filter, JsonGenerator generator) {
+        long rows = 0;
+        try (Stream<LogEvent> events = logEventRepository.streamMatching(filter, fetchSize)) {
+            Iterator<LogEvent> iterator = events.iterator();
+            while (iterator.hasNext()) {
+                LogEvent event = iterator.next();
+                generator.writeObject(event);
+                generator.writeRaw('\n');
+                entityManager.detach(event);
+                if (++rows % flushEveryRows == 0) {
+                    generator.flush();
+                    exportedRowsCounter.increment(flushEveryRows);
+                }
+            }
+            exportedRowsCounter.increment(rows % flushEveryRows);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+}
@@ -1,150 +1,192 @@
 package com.example.logprocessor.gateway.service;
 
+import com.example.logprocessor.gateway.model.CursorPage;
+import com.example.logprocessor.gateway.model.LogCursor;
 import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
 import com.example.logprocessor.gateway.repository.LogEventRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.example.logprocessor.gateway.repository.LogRollupRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 @Service
 public class LogQueryService {
 
     private static final Logger logger = LoggerFactory.getLogger(LogQueryService.class);
-    private static final String REDIS_CACHE_PREFIX = "query:cache:";
+    private static final int PHRASE_CANDIDATE_FACTOR = 4;
 
     private final LogEventRepository logEventRepository;
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final LogRollupRepository logRollupRepository;
+    private final QueryResultCache queryResultCache;
+    private final BlobReader blobReader;
+    private final InvertedLogIndex invertedLogIndex;
+    private final SearchIndexer searchIndexer;
+    private final PostgresSearchBackend postgresSearchBackend;
+    private final FederatedQueryExecutor federatedQueryExecutor;
+    private final TraceLookupService traceLookupService;
 
     @Autowired
-    public LogQueryService(LogEventRepository logEventRepository, RedisTemplate<String, String> redisTemplate) {
+    public LogQueryService(LogEventRepository logEventRepository, LogRollupRepository logRollupRepository,
+                           QueryResultCache queryResultCache,
+                           BlobReader blobReader,
+                           InvertedLogIndex invertedLogIndex, SearchIndexer searchIndexer,
+                           PostgresSearchBackend postgresSearchBackend,
+                           FederatedQueryExecutor federatedQueryExecutor,
+                           TraceLookupService traceLookupService) {
         this.logEventRepository = logEventRepository;
-        this.redisTemplate = redisTemplate;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.logRollupRepository = logRollupRepository;
+        this.queryResultCache = queryResultCache;
+        this.blobReader = blobReader;
+        this.invertedLogIndex = invertedLogIndex;
+        this.searchIndexer = searchIndexer;
+        this.postgresSearchBackend = postgresSearchBackend;
+        this.federatedQueryExecutor = federatedQueryExecutor;
+        this.traceLookupService = traceLookupService;
     }
 
-    public Page<LogEvent> queryLogs(String level, String source, String keyword, 
-                                  LocalDateTime startTime, LocalDateTime endTime, 
-                                  Pageable pageable) {
-        
-        String cacheKey = generateCacheKey("query", level, source, keyword, startTime, endTime, pageable);
-        
-        try {
-            // Try cache first for recent queries
-            String cachedResult = redisTemplate.opsForValue().get(cacheKey);
-            if (cachedResult != null) {
-                logger.debug("Cache hit for query: {}", cacheKey);
-                // In a real implementation, you'd deserialize the Page object
-                // For simplicity, we'll just log the cache hit and proceed with DB query
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to check cache for query: {}", cacheKey, e);
-        }
-
-        // Build dynamic query based on parameters
-        Page<LogEvent> result;
-        
-        if (startTime != null && endTime != null) {
-            if (level != null && source != null) {
-                result = logEventRepository.findByLevelAndSourceAndTimestampBetween(
-                    level, source, startTime, endTime, pageable);
-            } else if (level != null) {
-                result = logEventRepository.findByLevelAndTimestampBetween(level, startTime, endTime, pageable);
-            } else if (source != null) {
-                result = logEventRepository.findBySourceAndTimestampBetween(source, startTime, endTime, pageable);
-            } else {
-                result = logEventRepository.findByTimestampBetween(startTime, endTime, pageable);
-            }
-        } else {
-            if (level != null && source != null) {
-                result = logEventRepository.findByLevelAndSource(level, source, pageable);
-            } else if (level != null) {
-                result = logEventRepository.findByLevel(level, pageable);
-            } else if (source != null) {
-                result = logEventRepository.findBySource(source, pageable);
-            } else {
-                result = logEventRepository.findAll(pageable);
-            }
+    public Page<LogEvent> queryLogs(LogQueryFilter filter, Pageable pageable) {
+        String fingerprint = queryResultCache.fingerprint(filter, pageable);
+        Page<LogEvent> cached = queryResultCache.get(fingerprint, pageable);
+        if (cached != null) {
+            logger.debug("Cache hit for query: {}", fingerprint);
+            return cached;
         }
 
-        // Cache successful queries for 5 minutes
-        try {
-            // In a real implementation, you'd serialize the entire Page object
-            redisTemplate.opsForValue().set(cacheKey, "cached", 5, TimeUnit.MINUTES);
-        } catch (Exception e) {
-            logger.warn("Failed to cache query result: {}", cacheKey, e);
+        // Timestamp-ordered pages are federated across the hot, warm and cold tiers by time window
+        if (FederatedQueryExecutor.canFederate(pageable)) {
+            Page<LogEvent> federated = federatedQueryExecutor.query(filter, pageable);
+            queryResultCache.put(fingerprint, filter.getEndTime(), federated);
+            return federated;
         }
 
+        Page<LogEvent> result = logEventRepository.findMatching(filter, pageable);
+        queryResultCache.put(fingerprint, filter.getEndTime(), result);
         return result;
     }
 
+    public CursorPage<LogEvent> queryLogsByCursor(LogQueryFilter filter, String cursor, int size,
+                                                  boolean ascending, boolean includeTotal) {
+        LogCursor after = cursor != null ? LogCursor.decode(cursor) : null;
+
+        // One extra row tells whether another page exists without counting
+        List<LogEvent> rows = logEventRepository.findKeyset(filter, after, ascending, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<LogEvent> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? LogCursor.after(content.get(content.size() - 1)).encode() : null;
+
+        Long total = includeTotal
+            ? queryResultCache.count(filter, () -> logEventRepository.countMatching(filter))
+            : null;
+
+        return new CursorPage<>(content, size, hasNext, nextCursor, total);
+    }
+
     public LogEvent getLogByTraceId(String traceId) {
-        // Check hot storage (Redis) first
-        try {
-            String redisKey = "log:hot:" + traceId;
-            String cachedLog = redisTemplate.opsForValue().get(redisKey);
-            if (cachedLog != null) {
-                logger.debug("Found log in hot storage: trace_id={}", traceId);
-                return objectMapper.readValue(cachedLog, LogEvent.class);
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to check hot storage for trace ID: {}", traceId, e);
-        }
+        LogEvent logEvent = traceLookupService.findAll(List.of(traceId)).get(traceId);
+        return logEvent != null ? resolveMessage(logEvent) : null;
+    }
 
-        // Fallback to warm storage (PostgreSQL)
-        LogEvent result = logEventRepository.findByTraceId(traceId);
-        if (result != null) {
-            logger.debug("Found log in warm storage: trace_id={}", traceId);
+    // Stored prefixes only, like other list queries
+    public Map<String, LogEvent> getLogsByTraceIds(Collection<String> traceIds) {
+        return traceLookupService.findAll(traceIds);
+    }
+
+    // List queries return the stored prefix; only a single-event lookup pays for reading the full body.
+    // Looked-up events are shared through the trace cache, so the full body goes on a copy.
+    private LogEvent resolveMessage(LogEvent logEvent) {
+        if (logEvent.getMessageRef() == null) {
+            return logEvent;
         }
-        
-        return result;
+        String fullMessage = blobReader.read(logEvent.getMessageRef());
+        if (fullMessage == null) {
+            return logEvent;
+        }
+        LogEvent resolved = new LogEvent();
+        resolved.setId(logEvent.getId());
+        resolved.setTimestamp(logEvent.getTimestamp());
+        resolved.setLevel(logEvent.getLevel());
+        resolved.setSource(logEvent.getSource());
+        resolved.setMessage(fullMessage);
+        resolved.setTraceId(logEvent.getTraceId());
+        resolved.setMessageRef(logEvent.getMessageRef());
+        resolved.setMetadata(logEvent.getMetadata());
+        return resolved;
     }
 
-    public Map<String, Object> getLogStatistics(LocalDateTime since) {
-        LocalDateTime sinceTime = since != null ? since : LocalDateTime.now().minusHours(24);
+    public Map<String, Object> getLogStatistics(LocalDateTime since, LocalDateTime until, Set<String> groupBy) {
+        LocalDateTime sinceTime = since != null ? since : LocalDateTime.now(ZoneOffset.UTC).minusHours(24);
+        LocalDateTime untilTime = until != null ? until : LocalDateTime.now(ZoneOffset.UTC);
         
         Map<String, Object> stats = new HashMap<>();
         
-        // Get counts by level
-        Map<String, Long> levelCounts = new HashMap<>();
-        levelCounts.put("ERROR", logEventRepository.countByLevelAndTimestampAfter("ERROR", sinceTime));
-        levelCounts.put("WARN", logEventRepository.countByLevelAndTimestampAfter("WARN", sinceTime));
-        levelCounts.put("INFO", logEventRepository.countByLevelAndTimestampAfter("INFO", sinceTime));
-        levelCounts.put("DEBUG", logEventRepository.countByLevelAndTimestampAfter("DEBUG", sinceTime));
+        // Counts come from the consumer's rollups, so the cost depends on the window, not on raw volume
+        Map<String, Long> levelCounts = new TreeMap<>();
+        for (Map<String, Object> row : logRollupRepository.sumCounts(sinceTime, untilTime, true, false)) {
+            levelCounts.put((String) row.get("level"), (Long) row.get("count"));
+        }
         
         stats.put("levelCounts", levelCounts);
         stats.put("totalLogs", levelCounts.values().stream().mapToLong(Long::longValue).sum());
+        if (!groupBy.isEmpty()) {
+            stats.put("groups", logRollupRepository.sumCounts(
+                sinceTime, untilTime, groupBy.contains("level"), groupBy.contains("source")));
+        }
         stats.put("since", sinceTime);
-        stats.put("generatedAt", LocalDateTime.now());
+        stats.put("until", untilTime);
+        stats.put("generatedAt", LocalDateTime.now(ZoneOffset.UTC));
         
         return stats;
     }
 
     public List<LogEvent> searchLogs(String query, int limit) {
-        // Simple text search implementation
-        // In production, you might use Elasticsearch or similar for full-text search
+        if (postgresSearchBackend.isAvailable()) {
+            return postgresSearchBackend.search(query, limit);
+        }
+
+        InvertedLogIndex.SearchQuery parsed = InvertedLogIndex.SearchQuery.parse(query);
+        if (searchIndexer.isReady() && !parsed.isEmpty()) {
+            // Phrases are only token-intersected by the index, so fetch spare candidates for the adjacency check
+            int candidates = parsed.getPhrases().isEmpty() ? limit : limit * PHRASE_CANDIDATE_FACTOR;
+            List<Long> ids = invertedLogIndex.search(parsed, candidates);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+
+            Map<Long, LogEvent> byId = new HashMap<>();
+            logEventRepository.findByIdInAndTimestampGreaterThanEqual(ids, invertedLogIndex.oldestRetainedHour())
+                .forEach(event -> byId.put(event.getId(), event));
+
+            List<LogEvent> results = new ArrayList<>(Math.min(limit, ids.size()));
+            for (Long id : ids) {
+                LogEvent event = byId.get(id);
+                if (event != null && containsPhrases(event.getMessage(), parsed.getPhrases())) {
+                    results.add(event);
+                    if (results.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return results;
+        }
+
+        // No indexed backend ready, or no indexable tokens: scan the table
         return logEventRepository.findByMessageContainingIgnoreCase(query, 
             org.springframework.data.domain.PageRequest.of(0, limit)).getContent();
     }
 
-    private String generateCacheKey(String prefix, Object... params) {
-        StringBuilder key = new StringBuilder(REDIS_CACHE_PREFIX + prefix);
-        for (Object param : params) {
-            if (param != null) {
-                key.append(":").append(param.toString().hashCode());
-            }
+    private static boolean containsPhrases(String message, List<List<String>> phrases) {
+        if (phrases.isEmpty()) {
+            return true;
         }
-        return key.toString();
+        List<String> tokens = InvertedLogIndex.tokenize(message);
+        return phrases.stream().allMatch(phrase -> Collections.indexOfSubList(tokens, phrase) >= 0);
     }
 }
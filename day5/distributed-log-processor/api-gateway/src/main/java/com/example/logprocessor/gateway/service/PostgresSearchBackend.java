@@ -0,0 +1,97 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Keyword search inside Postgres, on the message_tsv and trigram indexes created by SearchSchemaMigrator.
+// The query shape picks the index:
+//   /regex/                       -> message ~* regex               (trigram GIN), newest first
+//   words, "phrases", prefix*     -> message_tsv @@ tsquery         (tsvector GIN), ranked by ts_rank_cd
+//   anything else (punctuation)   -> message ILIKE '%substring%'    (trigram GIN), newest first
+@Service
+public class PostgresSearchBackend {
+
+    public static final String NAME = "postgres";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final SearchSchemaMigrator schemaMigrator;
+    private final Counter fullTextCounter;
+    private final Counter trigramCounter;
+
+    @Autowired
+    public PostgresSearchBackend(SearchSchemaMigrator schemaMigrator, MeterRegistry meterRegistry) {
+        this.schemaMigrator = schemaMigrator;
+        this.fullTextCounter = Counter.builder("log_search_queries_total")
+                .description("Total number of keyword searches run by the Postgres search backend")
+                .tag("plan", "fulltext")
+                .register(meterRegistry);
+        this.trigramCounter = Counter.builder("log_search_queries_total")
+                .description("Total number of keyword searches run by the Postgres search backend")
+                .tag("plan", "trigram")
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return schemaMigrator.isApplied();
+    }
+
+    public List<LogEvent> search(String query, int limit) {
+        String trimmed = query.trim();
+        Query sql;
+        if (trimmed.length() > 2 && trimmed.startsWith("/") && trimmed.endsWith("/")) {
+            trigramCounter.increment();
+            sql = entityManager.createNativeQuery(
+                "SELECT * FROM log_events WHERE message ~* :pattern ORDER BY timestamp DESC, id DESC", LogEvent.class);
+            sql.setParameter("pattern", trimmed.substring(1, trimmed.length() - 1));
+        } else if (isFullTextShaped(trimmed)) {
+            fullTextCounter.increment();
+            sql = entityManager.createNativeQuery(
+                "SELECT * FROM log_events WHERE message_tsv @@ to_tsquery('simple', :query) " +
+                "ORDER BY ts_rank_cd(message_tsv, to_tsquery('simple', :query)) DESC, timestamp DESC", LogEvent.class);
+            sql.setParameter("query", toTsQuery(InvertedLogIndex.SearchQuery.parse(trimmed)));
+        } else {
+            trigramCounter.increment();
+            String escaped = trimmed.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            sql = entityManager.createNativeQuery(
+                "SELECT * FROM log_events WHERE message ILIKE :pattern ORDER BY timestamp DESC, id DESC", LogEvent.class);
+            sql.setParameter("pattern", "%" + escaped + "%");
+        }
+        sql.setMaxResults(limit);
+
+        @SuppressWarnings("unchecked")
+        List<LogEvent> results = sql.getResultList();
+        return results;
+    }
+
+    // Full text applies when every character is a word character, whitespace, a quote or a trailing *;
+    // anything else (paths, key=value, dotted names) is a substring the tokenizer would split apart
+    private static boolean isFullTextShaped(String query) {
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            boolean trailingStar = c == '*' && (i + 1 == query.length() || Character.isWhitespace(query.charAt(i + 1)));
+            if (!Character.isLetterOrDigit(c) && !Character.isWhitespace(c) && c != '"' && !trailingStar) {
+                return false;
+            }
+        }
+        return !InvertedLogIndex.SearchQuery.parse(query).isEmpty();
+    }
+
+    // Tokens are alphanumeric only, so they can be placed in the tsquery text without quoting
+    private static String toTsQuery(InvertedLogIndex.SearchQuery query) {
+        List<String> clauses = new ArrayList<>(query.getTerms());
+        query.getPrefixes().forEach(prefix -> clauses.add(prefix + ":*"));
+        query.getPhrases().forEach(phrase -> clauses.add("(" + String.join(" <-> ", phrase) + ")"));
+        return String.join(" & ", clauses);
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Two-level cache for paged query results: a per-instance Caffeine near-cache in front of Redis, both keyed by
+// a SHA-256 fingerprint of the canonical query. Windows that ended before the settle period can no longer change
+// and are kept for historical-ttl; windows touching "now" (or open-ended) are kept only for live-ttl.
+@Service
+public class QueryResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+    private static final String REDIS_CACHE_PREFIX = "query:cache:v1:";
+    private static final String REDIS_COUNT_PREFIX = "query:count:v1:";
+    private static final TypeReference<List<LogEvent>> CONTENT_TYPE = new TypeReference<>() {};
+
+    @Value("${log.query.cache.live-ttl-seconds:10}")
+    private long liveTtlSeconds;
+
+    @Value("${log.query.cache.historical-ttl-seconds:3600}")
+    private long historicalTtlSeconds;
+
+    // Consumer lag and late producers can still land events this far behind "now"
+    @Value("${log.query.cache.settle-seconds:300}")
+    private long settleSeconds;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CachedPage> nearCache;
+    private final Counter nearHitCounter;
+    private final Counter redisHitCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public QueryResultCache(RedisTemplate<String, String> redisTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${log.query.cache.near-max-entries:10000}") long nearMaxEntries,
+                            @Value("${log.query.cache.near-max-ttl-seconds:60}") long nearMaxTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        // Instances drop their near copy well before Redis so they never serve a result much older than a peer's
+        long nearMaxTtlNanos = Duration.ofSeconds(nearMaxTtlSeconds).toNanos();
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearMaxEntries)
+                .expireAfter(new Expiry<String, CachedPage>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedPage value, long currentTime) {
+                        return Math.min(value.ttl.toNanos(), nearMaxTtlNanos);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedPage value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedPage value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        this.nearHitCounter = Counter.builder("log_query_cache_hits_total")
+                .description("Total number of query results served from cache")
+                .tag("level", "near")
+                .register(meterRegistry);
+        this.redisHitCounter = Counter.builder("log_query_cache_hits_total")
+                .description("Total number of query results served from cache")
+                .tag("level", "redis")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("log_query_cache_misses_total")
+                .description("Total number of query results computed because no cached copy existed")
+                .register(meterRegistry);
+    }
+
+    public String fingerprint(LogQueryFilter filter, Pageable pageable) {
+        StringBuilder canonical = canonicalFilter("logs", filter);
+        appendField(canonical, "page", String.valueOf(pageable.getPageNumber()));
+        appendField(canonical, "size", String.valueOf(pageable.getPageSize()));
+        for (Sort.Order order : pageable.getSort()) {
+            appendField(canonical, "sort", order.getProperty() + ":" + order.getDirection());
+        }
+        return sha256(canonical.toString());
+    }
+
+    // Totals depend only on the filter, so every page of a cursor walk shares one cached count
+    public long count(LogQueryFilter filter, Supplier<Long> counter) {
+        String key = REDIS_COUNT_PREFIX + sha256(canonicalFilter("count", filter).toString());
+        try {
+            String cached = redisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                return Long.parseLong(cached);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read cached count: {}", key, e);
+        }
+
+        long total = counter.get();
+        try {
+            redisTemplate.opsForValue().set(key, String.valueOf(total), ttlFor(filter.getEndTime()));
+        } catch (Exception e) {
+            logger.warn("Failed to cache count: {}", key, e);
+        }
+        return total;
+    }
+
+    public Page<LogEvent> get(String fingerprint, Pageable pageable) {
+        CachedPage near = nearCache.getIfPresent(fingerprint);
+        if (near != null) {
+            nearHitCounter.increment();
+            return new PageImpl<>(near.content, pageable, near.total);
+        }
+
+        try {
+            String json = redisTemplate.opsForValue().get(REDIS_CACHE_PREFIX + fingerprint);
+            if (json != null) {
+                JsonNode node = objectMapper.readTree(json);
+                List<LogEvent> content = objectMapper.convertValue(node.get("c"), CONTENT_TYPE);
+                long total = node.get("t").asLong();
+                // The entry carries its own expiry so the near copy never outlives the Redis one
+                long remainingMillis = node.get("x").asLong() - System.currentTimeMillis();
+                if (remainingMillis > 0) {
+                    nearCache.put(fingerprint, new CachedPage(content, total, Duration.ofMillis(remainingMillis)));
+                }
+                redisHitCounter.increment();
+                return new PageImpl<>(content, pageable, total);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read cached query result: {}", fingerprint, e);
+        }
+
+        missCounter.increment();
+        return null;
+    }
+
+    public void put(String fingerprint, LocalDateTime endTime, Page<LogEvent> page) {
+        Duration ttl = ttlFor(endTime);
+        nearCache.put(fingerprint, new CachedPage(page.getContent(), page.getTotalElements(), ttl));
+
+        try {
+            ObjectNode node = objectMapper.createObjectNode();
+            node.put("t", page.getTotalElements());
+            node.put("x", System.currentTimeMillis() + ttl.toMillis());
+            node.set("c", objectMapper.valueToTree(page.getContent()));
+            redisTemplate.opsForValue().set(REDIS_CACHE_PREFIX + fingerprint, objectMapper.writeValueAsString(node), ttl);
+        } catch (Exception e) {
+            logger.warn("Failed to cache query result: {}", fingerprint, e);
+        }
+    }
+
+    private Duration ttlFor(LocalDateTime endTime) {
+        boolean settled = endTime != null && endTime.isBefore(LocalDateTime.now(ZoneOffset.UTC).minusSeconds(settleSeconds));
+        return Duration.ofSeconds(settled ? historicalTtlSeconds : liveTtlSeconds);
+    }
+
+    private static StringBuilder canonicalFilter(String kind, LogQueryFilter filter) {
+        // Length-prefixed fields in a fixed order (collections already sorted) so that no two distinct
+        // queries share a canonical form and equivalent ones always do
+        StringBuilder canonical = new StringBuilder(kind);
+        filter.getLevels().forEach(level -> appendField(canonical, "level", level));
+        appendField(canonical, "source", filter.getSource());
+        filter.getSourcePrefixes().forEach(prefix -> appendField(canonical, "sourcePrefix", prefix));
+        appendField(canonical, "traceId", filter.getTraceId());
+        filter.getMetadata().forEach((key, value) -> {
+            appendField(canonical, "metaKey", key);
+            appendField(canonical, "metaValue", value);
+        });
+        appendField(canonical, "keyword", filter.getKeyword());
+        appendField(canonical, "start", filter.getStartTime() != null ? filter.getStartTime().toString() : null);
+        appendField(canonical, "end", filter.getEndTime() != null ? filter.getEndTime().toString() : null);
+        return canonical;
+    }
+
+    private static void appendField(StringBuilder canonical, String name, String value) {
+        canonical.append('|').append(name).append('=');
+        if (value == null) {
+            canonical.append('-');
+        } else {
+            canonical.append(value.length()).append(':').append(value);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedPage {
+        private final List<LogEvent> content;
+        private final long total;
+        private final Duration ttl;
+
+        private CachedPage(List<LogEvent> content, long total, Duration ttl) {
+            this.content = content;
+            this.total = total;
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.logprocessor.gateway.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Feeds the InvertedLogIndex by tailing log_events in id order. Ids come from a sequence, so a transaction
+// that commits after a higher id was already read leaves a gap; gaps are re-probed until they appear or
+// time out (rolled back). On startup the tail begins at the first row inside the index retention window.
+@Service
+public class SearchIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexer.class);
+    private static final int MAX_TRACKED_GAPS = 10000;
+
+    public static final String BACKEND_NAME = "index";
+
+    @Value("${log.search.backend:index}")
+    private String backend;
+
+    @Value("${log.search.index.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${log.search.index.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${log.search.index.gap-timeout-ms:60000}")
+    private long gapTimeoutMs;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final InvertedLogIndex index;
+    private final Counter indexedCounter;
+    private final Map<Long, Long> pendingGaps = new LinkedHashMap<>();
+    private long watermark = -1;
+    private volatile boolean ready;
+
+    @Autowired
+    public SearchIndexer(NamedParameterJdbcTemplate jdbcTemplate, InvertedLogIndex index, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.index = index;
+        this.indexedCounter = Counter.builder("log_search_indexed_events_total")
+                .description("Total number of log events added to the in-process search index")
+                .register(meterRegistry);
+    }
+
+    // Searches fall back to the database until the tail has caught up with the table once
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Scheduled(fixedDelayString = "${log.search.index.poll-interval-ms:1000}")
+    public synchronized void poll() {
+        if (!BACKEND_NAME.equals(backend)) {
+            return;
+        }
+        try {
+            if (watermark < 0) {
+                watermark = startingWatermark();
+                logger.info("Search index tail starting after id {}", watermark);
+            }
+
+            for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+                int read = indexNewRows();
+                if (read < batchSize) {
+                    if (!ready) {
+                        logger.info("Search index caught up at id {}", watermark);
+                    }
+                    ready = true;
+                    break;
+                }
+            }
+            recheckGaps();
+        } catch (Exception e) {
+            logger.warn("Failed to advance search index tail from id {}", watermark, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${log.search.index.eviction-interval-ms:300000}")
+    public void evict() {
+        index.evictExpiredShards();
+    }
+
+    private long startingWatermark() {
+        Long first = jdbcTemplate.queryForObject(
+            "SELECT MIN(id) FROM log_events WHERE timestamp >= :since",
+            new MapSqlParameterSource("since", Timestamp.valueOf(index.oldestRetainedHour())), Long.class);
+        if (first != null) {
+            return first - 1;
+        }
+        Long last = jdbcTemplate.queryForObject("SELECT MAX(id) FROM log_events", new MapSqlParameterSource(), Long.class);
+        return last != null ? last : 0;
+    }
+
+    private int indexNewRows() {
+        List<IndexedRow> rows = jdbcTemplate.query(
+            "SELECT id, timestamp, message FROM log_events WHERE id > :watermark ORDER BY id LIMIT :limit",
+            new MapSqlParameterSource("watermark", watermark).addValue("limit", batchSize),
+            (rs, rowNum) -> new IndexedRow(rs.getLong("id"), rs.getTimestamp("timestamp"), rs.getString("message")));
+
+        long now = System.currentTimeMillis();
+        for (IndexedRow row : rows) {
+            for (long missing = watermark + 1; missing < row.id && pendingGaps.size() < MAX_TRACKED_GAPS; missing++) {
+                pendingGaps.put(missing, now);
+            }
+            index.add(row.id, row.timestamp.toLocalDateTime(), row.message);
+            watermark = row.id;
+        }
+        indexedCounter.increment(rows.size());
+        return rows.size();
+    }
+
+    private void recheckGaps() {
+        if (pendingGaps.isEmpty()) {
+            return;
+        }
+        long expiredBefore = System.currentTimeMillis() - gapTimeoutMs;
+        pendingGaps.values().removeIf(firstSeen -> firstSeen < expiredBefore);
+
+        List<Long> gapIds = new ArrayList<>(pendingGaps.keySet());
+        for (int from = 0; from < gapIds.size(); from += batchSize) {
+            List<Long> chunk = gapIds.subList(from, Math.min(gapIds.size(), from + batchSize));
+            List<IndexedRow> rows = jdbcTemplate.query(
+                "SELECT id, timestamp, message FROM log_events WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", chunk),
+                (rs, rowNum) -> new IndexedRow(rs.getLong("id"), rs.getTimestamp("timestamp"), rs.getString("message")));
+            for (IndexedRow row : rows) {
+                index.add(row.id, row.timestamp.toLocalDateTime(), row.message);
+                pendingGaps.remove(row.id);
+            }
+            indexedCounter.increment(rows.size());
+        }
+    }
+
+    private static final class IndexedRow {
+        private final long id;
+        private final Timestamp timestamp;
+        private final String message;
+
+        private IndexedRow(long id, Timestamp timestamp, String message) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.logprocessor.gateway.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// Versioned, idempotent DDL for the Postgres search backend. Applied at startup only when
+// log.search.backend=postgres, so existing deployments opt in with a config change. Each version runs in
+// its own transaction under an advisory lock, so concurrently starting gateways apply it exactly once.
+// Note that adding the generated column rewrites every log_events partition on first apply.
+@Service
+public class SearchSchemaMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchSchemaMigrator.class);
+    private static final String HISTORY_TABLE = "gateway_schema_migrations";
+    private static final long MIGRATION_LOCK_KEY = 0x6c6f6773L;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        new Migration(1, "pg_trgm extension and trigram index on message",
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_message_trgm ON log_events USING GIN (message gin_trgm_ops)"),
+        new Migration(2, "generated message_tsv column with GIN index",
+            "ALTER TABLE log_events ADD COLUMN IF NOT EXISTS message_tsv tsvector " +
+                "GENERATED ALWAYS AS (to_tsvector('simple', message)) STORED",
+            "CREATE INDEX IF NOT EXISTS idx_message_tsv ON log_events USING GIN (message_tsv)")
+    );
+
+    @Value("${log.search.backend:index}")
+    private String backend;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private volatile boolean applied;
+
+    @Autowired
+    public SearchSchemaMigrator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!PostgresSearchBackend.NAME.equals(backend)) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " (" +
+                "version INTEGER PRIMARY KEY, description VARCHAR(200) NOT NULL, " +
+                "applied_at TIMESTAMP NOT NULL DEFAULT NOW())");
+            for (Migration migration : MIGRATIONS) {
+                apply(migration);
+            }
+            applied = true;
+        } catch (Exception e) {
+            logger.error("Failed to migrate search schema; keyword search stays on the table scan", e);
+        }
+    }
+
+    private void apply(Migration migration) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + MIGRATION_LOCK_KEY + ")");
+            Integer done = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + HISTORY_TABLE + " WHERE version = ?", Integer.class, migration.version);
+            if (done != null && done > 0) {
+                return;
+            }
+
+            logger.info("Applying search schema migration {}: {}", migration.version, migration.description);
+            for (String statement : migration.statements) {
+                jdbcTemplate.execute(statement);
+            }
+            jdbcTemplate.update("INSERT INTO " + HISTORY_TABLE + " (version, description) VALUES (?, ?)",
+                                migration.version, migration.description);
+        });
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String[] statements;
+
+        private Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.logprocessor.gateway.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// One live-tail client: its filter, a bounded drop-oldest buffer filled by the Kafka listener thread, and a
+// drain task that runs on the shared sender pool only while the buffer is non-empty. The listener never
+// waits on a client; a slow client loses its oldest lines and is told how many.
+public class TailSubscription {
+
+    public interface Sink {
+        void send(String json) throws IOException;
+
+        void sendDropped(long dropped) throws IOException;
+
+        // Keeps idle connections open through proxies and surfaces clients that went away
+        void sendHeartbeat() throws IOException;
+
+        void close();
+    }
+
+    private final Set<String> levels;
+    private final String source;
+    private final String keyword;
+    private final int capacity;
+    private final Sink sink;
+    private final Executor sender;
+    private final ArrayDeque<String> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private long dropped;
+    private volatile boolean closed;
+
+    public TailSubscription(Set<String> levels, String source, String keyword, int capacity, Sink sink, Executor sender) {
+        this.levels = levels;
+        this.source = source;
+        this.keyword = keyword != null ? keyword.toLowerCase(Locale.ROOT) : null;
+        this.capacity = capacity;
+        this.sink = sink;
+        this.sender = sender;
+        this.buffer = new ArrayDeque<>(Math.min(capacity, 64));
+    }
+
+    public boolean matches(String level, String eventSource, String message) {
+        return (levels.isEmpty() || (level != null && levels.contains(level.toUpperCase(Locale.ROOT))))
+            && (source == null || source.equals(eventSource))
+            && (keyword == null || (message != null && message.toLowerCase(Locale.ROOT).contains(keyword)));
+    }
+
+    // Returns the number of lines dropped to make room (0 or 1)
+    public int offer(String json) {
+        if (closed) {
+            return 0;
+        }
+        int evicted = 0;
+        synchronized (buffer) {
+            if (buffer.size() >= capacity) {
+                buffer.pollFirst();
+                dropped++;
+                evicted = 1;
+            }
+            buffer.addLast(json);
+        }
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+        return evicted;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        if (!closed) {
+            closed = true;
+            sink.close();
+        }
+    }
+
+    public void heartbeat() {
+        if (closed) {
+            return;
+        }
+        try {
+            sink.sendHeartbeat();
+        } catch (Exception e) {
+            close();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                String next;
+                long droppedSinceLastSend;
+                synchronized (buffer) {
+                    next = buffer.pollFirst();
+                    droppedSinceLastSend = dropped;
+                    dropped = 0;
+                    if (next == null) {
+                        draining.set(false);
+                        return;
+                    }
+                }
+                if (droppedSinceLastSend > 0) {
+                    sink.sendDropped(droppedSinceLastSend);
+                }
+                sink.send(next);
+            }
+        } catch (Exception e) {
+            // The client went away; the service prunes closed subscriptions
+            close();
+        }
+        draining.set(false);
+    }
+}
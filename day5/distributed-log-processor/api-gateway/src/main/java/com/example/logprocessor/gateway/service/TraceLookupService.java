@@ -0,0 +1,145 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.repository.LogEventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Resolves trace ids in batches: a Caffeine near-cache first, then one pipelined round trip to the hot tier
+// and one query to the warm tier for whatever is left. Misses are cached too, briefly, since an id that is
+// not stored yet may still arrive behind consumer lag. Cached events are shared and must not be modified.
+@Service
+public class TraceLookupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TraceLookupService.class);
+    private static final CachedTrace MISSING = new CachedTrace(null);
+
+    private final HotLogStore hotLogStore;
+    private final LogEventRepository logEventRepository;
+    private final Cache<String, CachedTrace> nearCache;
+    private final Counter hitCounter;
+    private final Counter negativeHitCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public TraceLookupService(HotLogStore hotLogStore, LogEventRepository logEventRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${log.trace.cache.max-entries:50000}") long maxEntries,
+                              @Value("${log.trace.cache.ttl-seconds:60}") long ttlSeconds,
+                              @Value("${log.trace.cache.negative-ttl-seconds:5}") long negativeTtlSeconds) {
+        this.hotLogStore = hotLogStore;
+        this.logEventRepository = logEventRepository;
+
+        long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+        long negativeTtlNanos = Duration.ofSeconds(negativeTtlSeconds).toNanos();
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, CachedTrace>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedTrace value, long currentTime) {
+                        return value.event != null ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedTrace value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedTrace value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+
+        this.hitCounter = Counter.builder("log_trace_cache_hits_total")
+                .description("Total number of trace ids resolved from the near-cache")
+                .tag("result", "found")
+                .register(meterRegistry);
+        this.negativeHitCounter = Counter.builder("log_trace_cache_hits_total")
+                .description("Total number of trace ids resolved from the near-cache")
+                .tag("result", "missing")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("log_trace_cache_misses_total")
+                .description("Total number of trace ids looked up in storage")
+                .register(meterRegistry);
+    }
+
+    // Found events keyed by trace id, in request order; ids with no event are absent
+    public Map<String, LogEvent> findAll(Collection<String> traceIds) {
+        Map<String, LogEvent> found = new LinkedHashMap<>();
+        Set<String> pending = new LinkedHashSet<>();
+        for (String traceId : traceIds) {
+            CachedTrace cached = nearCache.getIfPresent(traceId);
+            if (cached == null) {
+                pending.add(traceId);
+            } else if (cached.event != null) {
+                hitCounter.increment();
+                found.put(traceId, cached.event);
+            } else {
+                negativeHitCounter.increment();
+            }
+        }
+        if (pending.isEmpty()) {
+            return found;
+        }
+        missCounter.increment(pending.size());
+
+        Map<String, LogEvent> loaded = new LinkedHashMap<>();
+        try {
+            loaded.putAll(hotLogStore.findByTraceIds(pending));
+            logger.debug("Found {} of {} trace ids in hot storage", loaded.size(), pending.size());
+        } catch (Exception e) {
+            logger.warn("Failed to check hot storage for {} trace ids", pending.size(), e);
+        }
+
+        Set<String> remaining = new LinkedHashSet<>(pending);
+        remaining.removeAll(loaded.keySet());
+        if (!remaining.isEmpty()) {
+            for (LogEvent event : logEventRepository.findByTraceIds(remaining)) {
+                loaded.putIfAbsent(event.getTraceId(), event);
+            }
+        }
+
+        for (String traceId : pending) {
+            LogEvent event = loaded.get(traceId);
+            nearCache.put(traceId, event != null ? new CachedTrace(event) : MISSING);
+        }
+        found.putAll(loaded);
+        return reorder(traceIds, found);
+    }
+
+    private static Map<String, LogEvent> reorder(Collection<String> traceIds, Map<String, LogEvent> found) {
+        Map<String, LogEvent> ordered = new LinkedHashMap<>();
+        for (String traceId : traceIds) {
+            LogEvent event = found.get(traceId);
+            if (event != null) {
+                ordered.put(traceId, event);
+            }
+        }
+        return ordered;
+    }
+
+    private static final class CachedTrace {
+        private final LogEvent event;
+
+        private CachedTrace(LogEvent event) {
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.logprocessor.gateway.repository;
+
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class LogQuerySqlTest {
+
+    @Test
+    void emptyFilterHasNoWhereClause() {
+        LogQuerySql sql = LogQuerySql.from(LogQueryFilter.of(null, null, null, null, null));
+
+        assertThat(sql.whereClause()).isEmpty();
+        assertThat(sql.parameters()).isEmpty();
+    }
+
+    @Test
+    void singleLevelUsesEqualityAndSeveralUseIn() {
+        assertThat(LogQuerySql.from(LogQueryFilter.of("ERROR", null, null, null, null)).whereClause())
+            .isEqualTo(" WHERE level = :level");
+
+        LogQueryFilter filter = new LogQueryFilter();
+        filter.setLevels(List.of("WARN", "ERROR"));
+        LogQuerySql sql = LogQuerySql.from(filter);
+
+        assertThat(sql.whereClause()).isEqualTo(" WHERE level IN (:levels)");
+        assertThat(sql.parameters()).containsExactly(entry("levels", List.of("ERROR", "WARN")));
+    }
+
+    @Test
+    void conditionsAreJoinedInIndexOrder() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 15, 0, 0);
+        LocalDateTime end = start.plusHours(1);
+        LogQueryFilter filter = LogQueryFilter.of("ERROR", "payment-service", "timeout", start, end);
+        filter.setTraceId("trace-1");
+        filter.setMetadata(Map.of("region", "eu", "host", "a1"));
+
+        LogQuerySql sql = LogQuerySql.from(filter);
+
+        assertThat(sql.whereClause()).isEqualTo(" WHERE level = :level AND source = :source AND trace_id = :traceId"
+            + " AND metadata @> CAST(:metadata AS jsonb) AND message ILIKE :keyword"
+            + " AND timestamp >= :startTime AND timestamp <= :endTime");
+        assertThat(sql.parameters())
+            .containsEntry("metadata", "{\"host\":\"a1\",\"region\":\"eu\"}")
+            .containsEntry("keyword", "%timeout%")
+            .containsEntry("startTime", start)
+            .containsEntry("endTime", end);
+    }
+
+    @Test
+    void sourcePrefixesAreOredAndLikeWildcardsEscaped() {
+        LogQueryFilter filter = new LogQueryFilter();
+        filter.setSourcePrefixes(List.of("pay_", "auth%"));
+
+        LogQuerySql sql = LogQuerySql.from(filter);
+
+        assertThat(sql.whereClause()).isEqualTo(" WHERE (source LIKE :sourcePrefix0 OR source LIKE :sourcePrefix1)");
+        assertThat(sql.parameters())
+            .containsEntry("sourcePrefix0", "auth\\%%")
+            .containsEntry("sourcePrefix1", "pay\\_%");
+    }
+
+    @Test
+    void singleSourcePrefixIsNotParenthesised() {
+        LogQueryFilter filter = new LogQueryFilter();
+        filter.setSourcePrefixes(List.of("pay"));
+
+        assertThat(LogQuerySql.from(filter).whereClause()).isEqualTo(" WHERE source LIKE :sourcePrefix0");
+    }
+
+    @Test
+    void keywordWildcardsAndBackslashesAreEscaped() {
+        LogQuerySql sql = LogQuerySql.from(LogQueryFilter.of(null, null, "100%_done\\", null, null));
+
+        assertThat(sql.parameters()).containsEntry("keyword", "%100\\%\\_done\\\\%");
+    }
+
+    @Test
+    void unsortedPagesOrderNewestFirstWithIdTieBreaker() {
+        assertThat(LogEventRepositoryImpl.orderBy(Sort.unsorted())).isEqualTo(" ORDER BY timestamp DESC, id DESC");
+    }
+
+    @Test
+    void sortPropertiesMapToColumnsAndIdFollowsTheLastDirection() {
+        Sort sort = Sort.by(Sort.Order.asc("level"), Sort.Order.asc("traceId"));
+
+        assertThat(LogEventRepositoryImpl.orderBy(sort)).isEqualTo(" ORDER BY level ASC, trace_id ASC, id ASC");
+    }
+
+    @Test
+    void explicitIdIsNotRepeated() {
+        Sort sort = Sort.by(Sort.Order.desc("timestamp"), Sort.Order.asc("id"));
+
+        assertThat(LogEventRepositoryImpl.orderBy(sort)).isEqualTo(" ORDER BY timestamp DESC, id ASC");
+    }
+
+    @Test
+    void unknownSortPropertyIsRejected() {
+        assertThatThrownBy(() -> LogEventRepositoryImpl.orderBy(Sort.by("message; DROP TABLE log_events")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Unsupported sort property");
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.logprocessor.gateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void rejectsBeyondTheLimitWhenNothingMayQueue() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 16, 100, 0.5, 0, 10);
+
+        assertThat(limiter.tryAcquire(3)).isEqualTo(3);
+        assertThat(limiter.tryAcquire(1)).isEqualTo(1);
+        assertThat(limiter.tryAcquire(1)).isZero();
+        assertThat(limiter.getInFlight()).isEqualTo(4);
+    }
+
+    @Test
+    void weightedRequestIsCappedAtTheWholeLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 16, 100, 0.5, 0, 10);
+
+        assertThat(limiter.tryAcquire(50)).isEqualTo(4);
+    }
+
+    @Test
+    void slowCompletionCutsTheLimitOncePerInterval() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 2, 32, 100, 0.5, 0, 10);
+        limiter.tryAcquire(2);
+
+        limiter.release(1, SLOW, true);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+
+        // The same slow burst landing within one target interval only counts once
+        limiter.release(1, SLOW, true);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    void failureCutsTheLimitButNeverBelowTheMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 3, 32, 0, 0.5, 0, 10);
+        limiter.tryAcquire(2);
+
+        limiter.release(1, FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        limiter.release(1, FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void fastCompletionsGrowTheLimitWhileBusyUpToTheMaximum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 5, 100, 0.5, 0, 10);
+
+        for (int window = 0; window < 5; window++) {
+            int held = limiter.tryAcquire(limiter.getLimit());
+            for (int i = 0; i < held; i++) {
+                limiter.release(1, FAST, true);
+            }
+        }
+
+        // Each busy window adds under one permit, and growth stops at the maximum
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void fastCompletionsDoNotGrowAnIdleLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 32, 100, 0.5, 0, 10);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(1);
+            limiter.release(1, FAST, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(8);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void queuedRequestProceedsWhenPermitsAreReleased() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 2, 100, 0.5, 1, 5000);
+        limiter.tryAcquire(2);
+
+        CompletableFuture<Integer> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(1);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        assertThat(waiting).isNotDone();
+
+        limiter.release(1, FAST, true);
+
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    @Test
+    void queuedRequestGivesUpAfterTheQueueTimeout() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 100, 0.5, 1, 20);
+        limiter.tryAcquire(1);
+
+        assertThat(limiter.tryAcquire(1)).isZero();
+    }
+}
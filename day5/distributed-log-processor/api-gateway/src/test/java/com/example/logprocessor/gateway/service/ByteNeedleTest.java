@@ -0,0 +1,90 @@
+package com.example.logprocessor.gateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteNeedleTest {
+
+    @Test
+    void findsNeedleAtEveryAlignment() {
+        ByteNeedle needle = ByteNeedle.exact("timeout");
+        for (int position = 0; position <= 33; position++) {
+            ByteBuffer buf = bufferWith("timeout", position, 40);
+            assertThat(needle.indexIn(buf, 0, 40)).as("position %d", position).isEqualTo(position);
+        }
+    }
+
+    @Test
+    void needleCrossingARangeEndIsOnlyFoundWhenTheRangeHoldsIt() {
+        ByteNeedle needle = ByteNeedle.exact("timeout");
+        ByteBuffer buf = bufferWith("timeout", 13, 40);
+        // Every cut between the first and last needle byte hides it from both halves; the full range sees it
+        for (int cut = 14; cut < 20; cut++) {
+            assertThat(needle.indexIn(buf, 0, cut)).as("cut %d", cut).isEqualTo(-1);
+            assertThat(needle.indexIn(buf, cut, 40)).as("cut %d", cut).isEqualTo(-1);
+        }
+        assertThat(needle.indexIn(buf, 0, 20)).isEqualTo(13);
+        assertThat(needle.indexIn(buf, 13, 40)).isEqualTo(13);
+    }
+
+    @Test
+    void searchStartsAtFrom() {
+        ByteNeedle needle = ByteNeedle.exact("ab");
+        ByteBuffer buf = wrap("ab-ab-ab-ab-ab-ab");
+        assertThat(needle.indexIn(buf, 0, buf.limit())).isZero();
+        assertThat(needle.indexIn(buf, 1, buf.limit())).isEqualTo(3);
+        assertThat(needle.indexIn(buf, 10, buf.limit())).isEqualTo(12);
+        assertThat(needle.indexIn(buf, 16, buf.limit())).isEqualTo(-1);
+    }
+
+    @Test
+    void newlineFindsEachLineEnd() {
+        ByteBuffer buf = wrap("first line\nsecond\n\nlast");
+        assertThat(ByteNeedle.NEWLINE.indexIn(buf, 0, buf.limit())).isEqualTo(10);
+        assertThat(ByteNeedle.NEWLINE.indexIn(buf, 11, buf.limit())).isEqualTo(17);
+        assertThat(ByteNeedle.NEWLINE.indexIn(buf, 18, buf.limit())).isEqualTo(18);
+        assertThat(ByteNeedle.NEWLINE.indexIn(buf, 19, buf.limit())).isEqualTo(-1);
+    }
+
+    @Test
+    void ignoringCaseMatchesAnyCase() {
+        ByteNeedle needle = ByteNeedle.ignoringCase("TimeOut");
+        assertThat(needle.indexIn(wrap("connection TIMEOUT after 30s"), 0, 28)).isEqualTo(11);
+        assertThat(needle.indexIn(wrap("a timeout"), 0, 9)).isEqualTo(2);
+        assertThat(ByteNeedle.exact("TimeOut").indexIn(wrap("connection TIMEOUT after 30s"), 0, 28)).isEqualTo(-1);
+    }
+
+    @Test
+    void partialMatchesAreSkipped() {
+        ByteBuffer buf = wrap("time TIMER Timeou timeout");
+        assertThat(ByteNeedle.ignoringCase("timeout").indexIn(buf, 0, buf.limit())).isEqualTo(18);
+        assertThat(ByteNeedle.exact("Timeout").indexIn(buf, 0, buf.limit())).isEqualTo(-1);
+    }
+
+    @Test
+    void valuesThatCannotAppearVerbatimHaveNoNeedle() {
+        assertThat(ByteNeedle.exact(null)).isNull();
+        assertThat(ByteNeedle.exact("")).isNull();
+        assertThat(ByteNeedle.exact("say \"hi\"")).isNull();
+        assertThat(ByteNeedle.exact("C:\\logs")).isNull();
+        assertThat(ByteNeedle.exact("two\nlines")).isNull();
+        assertThat(ByteNeedle.ignoringCase("café")).isNull();
+        assertThat(ByteNeedle.exact("café")).isNotNull();
+    }
+
+    private static ByteBuffer bufferWith(String needle, int position, int length) {
+        byte[] bytes = "x".repeat(length).getBytes(StandardCharsets.US_ASCII);
+        byte[] needleBytes = needle.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(needleBytes, 0, bytes, position, needleBytes.length);
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer wrap(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.function.IntFunction;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColdLogReaderTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 1, 15, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private ColdLogReader reader;
+
+    @AfterEach
+    void shutdown() {
+        if (reader != null) {
+            reader.shutdown();
+        }
+    }
+
+    @Test
+    void everyLineIsReadExactlyOnceWhateverTheSplitSize() throws IOException {
+        write("error-2024-01-15.log", lines("ERROR", 300, i -> i % 10 == 0 ? "disk timeout " + i : "request " + i), true);
+
+        for (int splitBytes : new int[] {3, 7, 64, 97, 500, 1 << 20}) {
+            ColdLogReader scanner = reader(splitBytes);
+            try {
+                ColdLogReader.ScanResult all = scanner.scan(LogQueryFilter.of(null, null, null, null, null), true, 1000);
+                assertThat(all.getMatched()).as("split %d", splitBytes).isEqualTo(300);
+                assertThat(all.getEvents()).extracting(LogEvent::getTraceId)
+                    .as("split %d", splitBytes)
+                    .doesNotHaveDuplicates()
+                    .hasSize(300);
+
+                ColdLogReader.ScanResult keyword = scanner.scan(LogQueryFilter.of(null, null, "TIMEOUT", null, null), true, 1000);
+                assertThat(keyword.getMatched()).as("split %d", splitBytes).isEqualTo(30);
+            } finally {
+                scanner.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void lastLineWithoutTrailingNewlineIsRead() throws IOException {
+        write("info-2024-01-15.log", lines("INFO", 50, i -> "line " + i), false);
+        reader = reader(64);
+
+        ColdLogReader.ScanResult result = reader.scan(LogQueryFilter.of(null, null, null, null, null), true, 1000);
+
+        assertThat(result.getMatched()).isEqualTo(50);
+        assertThat(result.getEvents()).extracting(LogEvent::getTraceId).contains("trace-49");
+    }
+
+    @Test
+    void compressedRotatedFilesAreInflated() throws IOException {
+        byte[] content = lines("WARN", 40, i -> "rotated " + i).getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(directory.resolve("warn-2024-01-15-20240115-120000.log.gz")))) {
+            out.write(content);
+        }
+        reader = reader(16);
+
+        ColdLogReader.ScanResult result = reader.scan(LogQueryFilter.of("WARN", null, null, null, null), true, 1000);
+
+        assertThat(result.getMatched()).isEqualTo(40);
+    }
+
+    @Test
+    void limitKeepsTheEarliestMatchesInOrder() throws IOException {
+        write("error-2024-01-15.log", lines("ERROR", 100, i -> "request " + i), true);
+        reader = reader(97);
+
+        ColdLogReader.ScanResult ascending = reader.scan(LogQueryFilter.of(null, null, null, null, null), true, 5);
+        ColdLogReader.ScanResult descending = reader.scan(LogQueryFilter.of(null, null, null, null, null), false, 5);
+
+        assertThat(ascending.getEvents()).extracting(LogEvent::getTraceId)
+            .containsExactly("trace-0", "trace-1", "trace-2", "trace-3", "trace-4");
+        assertThat(descending.getEvents()).extracting(LogEvent::getTraceId)
+            .containsExactly("trace-99", "trace-98", "trace-97", "trace-96", "trace-95");
+        assertThat(ascending.getMatched()).isEqualTo(100);
+    }
+
+    private ColdLogReader reader(int splitBytes) {
+        ColdLogReader reader = new ColdLogReader(directory.toString(), 4);
+        ReflectionTestUtils.setField(reader, "splitBytes", splitBytes);
+        return reader;
+    }
+
+    private void write(String fileName, String content, boolean trailingNewline) throws IOException {
+        String body = trailingNewline ? content : content.substring(0, content.length() - 1);
+        Files.writeString(directory.resolve(fileName), body);
+    }
+
+    // One JSON line per event, a second apart, with message lengths that vary so lines straddle every split size
+    private static String lines(String level, int count, IntFunction<String> message) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append("{\"timestamp\":\"").append(DAY.plusSeconds(i))
+                .append("\",\"level\":\"").append(level)
+                .append("\",\"source\":\"api\",\"message\":\"").append(message.apply(i)).append(" ").append("x".repeat(i % 37))
+                .append("\",\"trace_id\":\"trace-").append(i).append("\"}\n");
+        }
+        return builder.toString();
+    }
+}
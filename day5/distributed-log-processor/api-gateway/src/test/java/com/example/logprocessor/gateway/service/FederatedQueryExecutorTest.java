@@ -0,0 +1,118 @@
+package com.example.logprocessor.gateway.service;
+
+import com.example.logprocessor.gateway.model.LogEvent;
+import com.example.logprocessor.gateway.model.LogQueryFilter;
+import com.example.logprocessor.gateway.repository.LogEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class FederatedQueryExecutorTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+    @Test
+    void mergesSortedStreamsAscending() {
+        List<LogEvent> merged = FederatedQueryExecutor.merge(List.of(
+            stream(1, 4, 7),
+            stream(2, 5, 8),
+            stream(3, 6, 9)), true, 100);
+
+        assertThat(seconds(merged)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void mergesSortedStreamsDescending() {
+        List<LogEvent> merged = FederatedQueryExecutor.merge(List.of(
+            stream(9, 5, 1),
+            stream(8, 2),
+            stream(7, 6, 4, 3)), false, 100);
+
+        assertThat(seconds(merged)).containsExactly(9, 8, 7, 6, 5, 4, 3, 2, 1);
+    }
+
+    @Test
+    void stopsAtLimitWithoutDrainingStreams() {
+        Iterator<LogEvent> slow = stream(10, 11, 12);
+        List<LogEvent> merged = FederatedQueryExecutor.merge(List.of(stream(1, 2, 3, 4), slow), true, 3);
+
+        assertThat(seconds(merged)).containsExactly(1, 2, 3);
+        // Only the head of the stream that never won was read
+        assertThat(seconds(List.of(slow.next()))).containsExactly(11);
+    }
+
+    @Test
+    void toleratesEmptyStreamsAndNoStreams() {
+        assertThat(FederatedQueryExecutor.merge(List.of(), true, 10)).isEmpty();
+        assertThat(seconds(FederatedQueryExecutor.merge(List.of(stream(), stream(2), stream()), true, 10)))
+            .containsExactly(2);
+    }
+
+    @Test
+    void keepsEventsWithEqualTimestampsFromEveryStream() {
+        List<LogEvent> merged = FederatedQueryExecutor.merge(List.of(stream(1, 2), stream(1, 2)), true, 10);
+
+        assertThat(seconds(merged)).containsExactly(1, 1, 2, 2);
+    }
+
+    @Test
+    void pagesPastMaxRowsFallBackToWarmWhenNoColdWindowIsInvolved() {
+        LogEventRepository repository = mock(LogEventRepository.class);
+        ColdLogReader coldLogReader = mock(ColdLogReader.class);
+        FederatedQueryExecutor executor = executor(repository, coldLogReader);
+        LogQueryFilter filter = LogQueryFilter.of("ERROR", null, null, null, null);
+        Pageable deepPage = PageRequest.of(20, 10);
+        Page<LogEvent> warmPage = new PageImpl<>(List.of(event(1)), deepPage, 500);
+        when(repository.findMatching(filter, deepPage)).thenReturn(warmPage);
+
+        assertThat(executor.query(filter, deepPage)).isSameAs(warmPage);
+        verifyNoInteractions(coldLogReader);
+    }
+
+    @Test
+    void pagesPastMaxRowsAreRejectedWhenTheyReachColdStorage() {
+        FederatedQueryExecutor executor = executor(mock(LogEventRepository.class), mock(ColdLogReader.class));
+        LogQueryFilter filter = LogQueryFilter.of(null, null, null, LocalDateTime.now().minusDays(60), null);
+
+        assertThatThrownBy(() -> executor.query(filter, PageRequest.of(20, 10)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static FederatedQueryExecutor executor(LogEventRepository repository, ColdLogReader coldLogReader) {
+        FederatedQueryExecutor executor = new FederatedQueryExecutor(mock(HotLogStore.class), repository, coldLogReader,
+            new SimpleMeterRegistry(), 1);
+        ReflectionTestUtils.setField(executor, "maxRows", 100);
+        ReflectionTestUtils.setField(executor, "hotFreshnessSeconds", 10);
+        ReflectionTestUtils.setField(executor, "warmRetentionDays", 30);
+        return executor;
+    }
+
+    private static Iterator<LogEvent> stream(int... seconds) {
+        return Arrays.stream(seconds).mapToObj(FederatedQueryExecutorTest::event).iterator();
+    }
+
+    private static LogEvent event(int second) {
+        LogEvent event = new LogEvent();
+        event.setTimestamp(BASE.plusSeconds(second));
+        return event;
+    }
+
+    private static List<Integer> seconds(List<LogEvent> events) {
+        return events.stream().map(e -> e.getTimestamp().getSecond()).toList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.logprocessor.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class LiveTailServiceTest {
+
+    private final LiveTailService liveTailService = new LiveTailService(
+        mock(KafkaListenerEndpointRegistry.class), new ObjectMapper(), new SimpleMeterRegistry(), 1);
+
+    @AfterEach
+    void shutdown() {
+        liveTailService.shutdown();
+    }
+
+    @Test
+    void everyAssignmentStartsFromTheEndRatherThanTheCommittedOffset() {
+        ConsumerSeekAware.ConsumerSeekCallback callback = mock(ConsumerSeekAware.ConsumerSeekCallback.class);
+        Map<TopicPartition, Long> assignments = Map.of(
+            new TopicPartition("log-events", 0), 120L,
+            new TopicPartition("log-events", 1), 75L);
+
+        liveTailService.onPartitionsAssigned(assignments, callback);
+
+        verify(callback).seekToEnd(assignments.keySet());
+    }
+}
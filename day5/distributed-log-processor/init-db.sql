@@ -1,18 +1,92 @@
--- Create additional indexes for performance (these will be created after the table exists)
--- Note: These indexes will be created by the application when it starts
+-- Warm storage table, range-partitioned by day on timestamp.
+-- Daily partitions are pre-created and retired by the log-consumer partition manager.
+CREATE TABLE IF NOT EXISTS log_events (
+    id BIGSERIAL,
+    timestamp TIMESTAMP(6) NOT NULL,
+    level VARCHAR(20) NOT NULL,
+    source VARCHAR(100) NOT NULL,
+    message TEXT NOT NULL,
+    -- Blob segment reference when the message was offloaded; message then holds only a prefix
+    message_ref VARCHAR(200),
+    trace_id VARCHAR(100),
+    metadata JSONB,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Catch-all for events that fall outside the pre-created daily partitions
+CREATE TABLE IF NOT EXISTS log_events_default PARTITION OF log_events DEFAULT;
+
+-- BRIN suits append-mostly timestamps: tiny, and partition pruning does the coarse work
+CREATE INDEX IF NOT EXISTS idx_timestamp_brin ON log_events USING BRIN (timestamp);
+-- Keyset pagination seeks on (timestamp, id) in either direction
+CREATE INDEX IF NOT EXISTS idx_timestamp_id ON log_events (timestamp, id);
+-- Composites matched to the gateway's filter shapes (LogQuerySql): equality columns first, then the
+-- (timestamp, id) order so a filtered, time-sorted page is an index range scan with no sort step
+CREATE INDEX IF NOT EXISTS idx_level_timestamp ON log_events (level, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_source_timestamp ON log_events (source, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_level_source_timestamp ON log_events (level, source, timestamp, id);
+-- Source prefix filters (source LIKE 'payment-%') need pattern ops under a non-C collation
+CREATE INDEX IF NOT EXISTS idx_source_pattern ON log_events (source text_pattern_ops, timestamp);
+-- Partial indexes: the "problems" view (level IN ERROR, WARN) stays time-ordered without merging two level
+-- ranges, and trace lookups skip the majority of rows that carry no trace id
+CREATE INDEX IF NOT EXISTS idx_problem_timestamp ON log_events (timestamp, id) WHERE level IN ('ERROR', 'WARN');
+CREATE INDEX IF NOT EXISTS idx_trace_id ON log_events (trace_id) WHERE trace_id IS NOT NULL;
+-- Metadata lives inline as JSONB; jsonb_path_ops serves key/value containment lookups (metadata @> '{"user_id":"42"}')
+CREATE INDEX IF NOT EXISTS idx_metadata_gin ON log_events USING GIN (metadata jsonb_path_ops);
+-- Keyword filters (message ILIKE '%timeout%') use trigrams; keywords shorter than three characters still scan.
+-- Same name as the gateway's search migration, which then finds it in place
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_message_trgm ON log_events USING GIN (message gin_trgm_ops);
+
+-- Last Kafka offset persisted to log_events per partition, written in the same transaction as the rows.
+-- In exactly-once sink mode the consumer rewinds to here on assignment when Kafka's committed offset is ahead,
+-- and skips redelivered records at or below it.
+CREATE TABLE IF NOT EXISTS consumer_offsets (
+    consumer_group VARCHAR(100) NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    partition INTEGER NOT NULL,
+    committed_offset BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (consumer_group, topic, partition)
+);
+
+-- Pre-aggregated event counts for the stats endpoint. The consumer adds per-minute counts with each warm
+-- batch and compacts settled minutes into hours and old hours into days; an event is counted in exactly one row.
+CREATE TABLE IF NOT EXISTS log_rollups (
+    granularity VARCHAR(6) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    source VARCHAR(100) NOT NULL,
+    level VARCHAR(20) NOT NULL,
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (granularity, bucket_start, source, level)
+);
 
 -- Create function for log cleanup
+-- Retention is applied by detaching and dropping whole daily partitions; returns the number of partitions dropped.
 CREATE OR REPLACE FUNCTION cleanup_old_logs(days_to_keep INTEGER DEFAULT 30)
 RETURNS INTEGER AS $$
 DECLARE
-    deleted_count INTEGER;
+    partition_name TEXT;
+    cutoff DATE := CURRENT_DATE - days_to_keep;
+    dropped_count INTEGER := 0;
 BEGIN
-    DELETE FROM log_events 
-    WHERE timestamp < NOW() - INTERVAL '1 day' * days_to_keep;
-    
-    GET DIAGNOSTICS deleted_count = ROW_COUNT;
-    
-    RETURN deleted_count;
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = 'log_events'
+          AND c.relname ~ '^log_events_p[0-9]{8}$'
+          AND to_date(substring(c.relname FROM 13), 'YYYYMMDD') < cutoff
+    LOOP
+        EXECUTE format('ALTER TABLE log_events DETACH PARTITION %I', partition_name);
+        EXECUTE format('DROP TABLE %I', partition_name);
+        dropped_count := dropped_count + 1;
+    END LOOP;
+
+    DELETE FROM log_events_default WHERE timestamp < cutoff;
+
+    RETURN dropped_count;
 END;
 $$ LANGUAGE plpgsql;
 
@@ -0,0 +1,36 @@
+package com.example.logprocessor.consumer.controller;
+
+import com.example.logprocessor.consumer.service.DeadLetterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/dlq")
+public class DeadLetterController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterController.class);
+    private static final int MAX_REDRIVE_BATCH = 10000;
+
+    private final DeadLetterService deadLetterService;
+
+    @Autowired
+    public DeadLetterController(DeadLetterService deadLetterService) {
+        this.deadLetterService = deadLetterService;
+    }
+
+    @PostMapping("/redrive")
+    public ResponseEntity<Map<String, Object>> redrive(@RequestParam(defaultValue = "1000") int limit) {
+        if (limit <= 0 || limit > MAX_REDRIVE_BATCH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_REDRIVE_BATCH));
+        }
+
+        int redriven = deadLetterService.redrive(limit);
+        logger.info("DLQ redrive requested: limit={}, redriven={}", limit, redriven);
+        return ResponseEntity.ok(Map.of("redriven", redriven, "limit", limit));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.logprocessor.consumer.model;
+
+// A parsed log event together with the Kafka position it was read from and the record's original JSON,
+// which the hot and cold tiers store verbatim instead of re-serializing the event. The source position
+// ("<topic>-<partition>-<offset>" of the record as first produced) stays the same across retry topics.
+public class ConsumedLogEvent {
+
+    private final LogEvent event;
+    private final String topic;
+    private final int partition;
+    private final long offset;
+    private final String rawJson;
+    private final String sourcePosition;
+
+    public ConsumedLogEvent(LogEvent event, String topic, int partition, long offset, String rawJson) {
+        this(event, topic, partition, offset, rawJson, topic + "-" + partition + "-" + offset);
+    }
+
+    public ConsumedLogEvent(LogEvent event, String topic, int partition, long offset, String rawJson,
+                            String sourcePosition) {
+        this.event = event;
+        this.topic = topic;
+        this.partition = partition;
+        this.offset = offset;
+        this.rawJson = rawJson;
+        this.sourcePosition = sourcePosition;
+    }
+
+    public LogEvent getEvent() { return event; }
+
+    public String getTopic() { return topic; }
+
+    public int getPartition() { return partition; }
+
+    public long getOffset() { return offset; }
+
+    public String getRawJson() { return rawJson; }
+
+    public String getSourcePosition() { return sourcePosition; }
+}
@@ -1,16 +1,17 @@
 package com.example.logprocessor.consumer.model;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 import java.util.Map;
 
 @Entity
-@Table(name = "log_events", indexes = {
-    @Index(name = "idx_timestamp", columnList = "timestamp"),
-    @Index(name = "idx_level", columnList = "level"),
-    @Index(name = "idx_source", columnList = "source"),
-    @Index(name = "idx_trace_id", columnList = "trace_id")
-})
+// log_events is range-partitioned by day; its indexes and partitions are managed in init-db.sql
+// and by LogPartitionManager rather than by Hibernate.
+@Table(name = "log_events")
 public class LogEvent {
     
     @Id
@@ -29,14 +30,17 @@ public class LogEvent {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String message;
     
+    // Producers write the Kafka payload in snake_case
+    @JsonAlias("trace_id")
     @Column(name = "trace_id", length = 100)
     private String traceId;
     
-    @ElementCollection
-    @CollectionTable(name = "log_metadata", 
-                    joinColumns = @JoinColumn(name = "log_event_id"))
-    @MapKeyColumn(name = "metadata_key")
-    @Column(name = "metadata_value")
+    // Set when the full message was offloaded to a blob segment; message then holds only a prefix
+    @Column(name = "message_ref", length = 200)
+    private String messageRef;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
     private Map<String, String> metadata;
 
     // Constructors
@@ -69,6 +73,9 @@ public class LogEvent {
     public String getTraceId() { return traceId; }
     public void setTraceId(String traceId) { this.traceId = traceId; }
 
+    public String getMessageRef() { return messageRef; }
+    public void setMessageRef(String messageRef) { this.messageRef = messageRef; }
+
     public Map<String, String> getMetadata() { return metadata; }
     public void setMetadata(Map<String, String> metadata) { this.metadata = metadata; }
 }
@@ -0,0 +1,125 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Bounds the write-behind buffer (records consumed but not yet stored by every tier). Past the high-water mark
+// the partitions holding in-flight records are paused; the container keeps polling, so the group sees no
+// slow consumer, and they resume once the buffer drains below the low-water mark. Pause state is read from the
+// child containers rather than tracked here; a restart creates fresh children, so nothing goes stale.
+@Service
+public class BackpressureController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackpressureController.class);
+    public static final String LISTENER_ID = "log-event-consumer";
+
+    @Value("${log.consumer.backpressure.enabled:true}")
+    private boolean enabled;
+
+    // Keep below log.storage.*.queue-capacity so submitting to a tier never blocks the poll loop
+    @Value("${log.consumer.backpressure.high-watermark:5000}")
+    private long highWatermark;
+
+    @Value("${log.consumer.backpressure.low-watermark:1000}")
+    private long lowWatermark;
+
+    private final OffsetCommitTracker offsetCommitTracker;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final Counter pauseCounter;
+
+    @Autowired
+    public BackpressureController(OffsetCommitTracker offsetCommitTracker,
+                                  KafkaListenerEndpointRegistry listenerRegistry,
+                                  MeterRegistry meterRegistry) {
+        this.offsetCommitTracker = offsetCommitTracker;
+        this.listenerRegistry = listenerRegistry;
+        this.pauseCounter = Counter.builder("log_consumer_backpressure_pauses_total")
+                .description("Total number of times partitions were paused because the write-behind buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("log_consumer_paused_partitions", this, BackpressureController::getPausedPartitionCount)
+                .description("Number of partitions currently paused by backpressure")
+                .register(meterRegistry);
+    }
+
+    // Called from the listener after each record and periodically, so paused partitions are resumed
+    // even though no records arrive while they are paused
+    @Scheduled(fixedDelayString = "${log.consumer.backpressure.check-interval-ms:100}")
+    public synchronized void evaluate() {
+        if (!enabled) {
+            return;
+        }
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container == null || !container.isRunning()) {
+            return;
+        }
+
+        long inFlight = offsetCommitTracker.getInFlightCount();
+        if (inFlight >= highWatermark) {
+            pause(container, inFlight);
+        } else if (inFlight <= lowWatermark) {
+            resume(container, inFlight);
+        }
+    }
+
+    public int getPausedPartitionCount() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        Collection<TopicPartition> assigned = container != null ? container.getAssignedPartitions() : null;
+        if (assigned == null) {
+            return 0;
+        }
+        return (int) assigned.stream().filter(topicPartition -> isPauseRequested(container, topicPartition)).count();
+    }
+
+    private void pause(MessageListenerContainer container, long inFlight) {
+        // Only main-topic partitions are throttled; retry tiers pace themselves
+        Collection<TopicPartition> assigned = container.getAssignedPartitions();
+        Map<TopicPartition, Integer> inFlightByPartition = offsetCommitTracker.getInFlightByPartition();
+        inFlightByPartition.forEach((topicPartition, count) -> {
+            if (count > 0 && assigned != null && assigned.contains(topicPartition)
+                    && !isPauseRequested(container, topicPartition)) {
+                container.pausePartition(topicPartition);
+                pauseCounter.increment();
+                logger.warn("Pausing {}: {} records in flight (high-water mark {})",
+                           topicPartition, inFlight, highWatermark);
+            }
+        });
+    }
+
+    private void resume(MessageListenerContainer container, long inFlight) {
+        Collection<TopicPartition> assigned = container.getAssignedPartitions();
+        if (assigned == null) {
+            return;
+        }
+        for (TopicPartition topicPartition : assigned) {
+            if (!isPauseRequested(container, topicPartition)) {
+                continue;
+            }
+            container.resumePartition(topicPartition);
+            logger.info("Resuming {}: {} records in flight (low-water mark {})",
+                       topicPartition, inFlight, lowWatermark);
+        }
+    }
+
+    // A concurrent container forwards pause requests to the child that owns the partition and keeps none itself
+    private static boolean isPauseRequested(MessageListenerContainer container, TopicPartition topicPartition) {
+        if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+            return concurrent.getContainers().stream()
+                .anyMatch(child -> child.isPartitionPauseRequested(topicPartition));
+        }
+        return container.isPartitionPauseRequested(topicPartition);
+    }
+}
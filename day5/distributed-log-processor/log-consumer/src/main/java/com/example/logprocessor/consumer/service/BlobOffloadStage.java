@@ -0,0 +1,57 @@
+package com.example.logprocessor.consumer.service;
+
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
+import com.example.logprocessor.consumer.model.LogEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Moves oversized messages into blob segments ahead of the storage tiers, off the listener thread. A batch
+// shares one fsync; only after it do the events get their prefix and reference, so a failed batch leaves
+// them untouched for the retry.
+@Component
+public class BlobOffloadStage extends StorageStage<ConsumedLogEvent> {
+
+    private final BlobSegmentStore blobSegmentStore;
+
+    @Autowired
+    public BlobOffloadStage(BlobSegmentStore blobSegmentStore,
+                            MeterRegistry meterRegistry,
+                            @Value("${log.blob.queue-capacity:10000}") int queueCapacity,
+                            @Value("${log.blob.batch-size:100}") int batchSize,
+                            @Value("${log.blob.linger-ms:5}") long lingerMs,
+                            @Value("${log.storage.max-attempts:3}") int maxAttempts) {
+        // One lane: all writes append to the same segment
+        super("blob", 1, queueCapacity, batchSize, lingerMs, maxAttempts, meterRegistry);
+        this.blobSegmentStore = blobSegmentStore;
+    }
+
+    public boolean shouldOffload(ConsumedLogEvent event) {
+        return event.getEvent().getMessageRef() == null && blobSegmentStore.shouldOffload(event.getEvent().getMessage());
+    }
+
+    @Override
+    protected void writeBatch(List<ConsumedLogEvent> events) {
+        Map<String, String> messagesByPosition = new LinkedHashMap<>();
+        for (ConsumedLogEvent event : events) {
+            if (event.getEvent().getMessageRef() == null) {
+                messagesByPosition.put(event.getSourcePosition(), event.getEvent().getMessage());
+            }
+        }
+
+        Map<String, String> refs = blobSegmentStore.store(messagesByPosition);
+        for (ConsumedLogEvent consumed : events) {
+            LogEvent event = consumed.getEvent();
+            String ref = refs.get(consumed.getSourcePosition());
+            if (event.getMessageRef() == null && ref != null) {
+                event.setMessageRef(ref);
+                event.setMessage(blobSegmentStore.prefixOf(event.getMessage()));
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+// Append-only, deflate-compressed store for oversized log messages. Segments roll at segment-max-bytes and
+// are deleted whole once older than the retention period; a message is addressed by
+// "blob:<segment>:<offset>:<length>", which the gateway resolves from the same directory.
+// Writes arrive in batches from BlobOffloadStage and share one fsync. Each segment has a "<segment>.idx"
+// sidecar of "<source position> <reference>" lines, so a redelivered record gets its earlier reference back
+// instead of a second copy; the recent part of the index is reloaded on startup.
+@Service
+public class BlobSegmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobSegmentStore.class);
+    public static final String REF_PREFIX = "blob:";
+    private static final String SEGMENT_SUFFIX = ".blob";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    @Value("${log.blob.offload-threshold-bytes:8192}")
+    private int offloadThresholdBytes;
+
+    @Value("${log.blob.prefix-chars:512}")
+    private int prefixChars;
+
+    @Value("${log.blob.segment-max-bytes:268435456}")
+    private long segmentMaxBytes;
+
+    @Value("${log.blob.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${log.blob.index-recovery-hours:24}")
+    private int indexRecoveryHours;
+
+    private final Path directory;
+    private final Map<String, String> refsByPosition;
+    private final Counter offloadedCounter;
+    private final Counter duplicateCounter;
+    private FileChannel segment;
+    private FileChannel index;
+    private String segmentName;
+
+    @Autowired
+    public BlobSegmentStore(@Value("${log.blob.directory:${log.data-directory}/blobs/}") String directory,
+                            @Value("${log.blob.index-entries:100000}") int indexEntries,
+                            MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+        File dir = this.directory.toFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        // Access-ordered, so the oldest references fall out first once the bound is reached
+        this.refsByPosition = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > indexEntries;
+            }
+        };
+        this.offloadedCounter = Counter.builder("log_messages_offloaded_total")
+                .description("Total number of log messages moved to blob segments")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("log_messages_offload_duplicates_total")
+                .description("Total number of redelivered messages that reused an existing blob reference")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void loadRecentIndex() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(indexRecoveryHours);
+        File[] indexes = directory.toFile().listFiles((dir, name) -> name.endsWith(INDEX_SUFFIX));
+        if (indexes == null) {
+            return;
+        }
+        // Segment names sort by creation time, so later lines win
+        Arrays.sort(indexes, Comparator.comparing(File::getName));
+        for (File file : indexes) {
+            if (file.lastModified() < cutoff) {
+                continue;
+            }
+            try {
+                for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                    int space = line.indexOf(' ');
+                    if (space > 0) {
+                        refsByPosition.put(line.substring(0, space), line.substring(space + 1));
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to read blob index {}", file.getName(), e);
+            }
+        }
+        logger.info("Loaded {} recent blob references", refsByPosition.size());
+    }
+
+    public boolean shouldOffload(String message) {
+        // Cheap upper bound first: a UTF-8 char is at most 3 bytes per UTF-16 unit
+        return message != null && message.length() * 3 > offloadThresholdBytes
+            && message.getBytes(StandardCharsets.UTF_8).length > offloadThresholdBytes;
+    }
+
+    public String prefixOf(String message) {
+        return message.length() <= prefixChars ? message : message.substring(0, prefixChars);
+    }
+
+    // Appends every message not stored before under its source position and returns the references by position.
+    // Nothing is returned until the segment and its index are forced, since warm rows may reference the blobs
+    // right after.
+    public synchronized Map<String, String> store(Map<String, String> messagesByPosition) {
+        Map<String, String> refs = new LinkedHashMap<>();
+        StringBuilder indexLines = new StringBuilder();
+        try {
+            for (Map.Entry<String, String> message : messagesByPosition.entrySet()) {
+                String existing = refsByPosition.get(message.getKey());
+                if (existing != null) {
+                    duplicateCounter.increment();
+                    refs.put(message.getKey(), existing);
+                    continue;
+                }
+                byte[] compressed = compress(message.getValue().getBytes(StandardCharsets.UTF_8));
+                if (segment == null || segment.size() + compressed.length > segmentMaxBytes) {
+                    flushIndex(indexLines);
+                    rollSegment();
+                }
+                long offset = segment.size();
+                write(segment, ByteBuffer.wrap(compressed));
+                String ref = REF_PREFIX + segmentName + ":" + offset + ":" + compressed.length;
+                refs.put(message.getKey(), ref);
+                indexLines.append(message.getKey()).append(' ').append(ref).append('\n');
+            }
+            flushIndex(indexLines);
+            if (segment != null) {
+                segment.force(false);
+                index.force(false);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to append messages to blob segment {}", segmentName, e);
+            throw new RuntimeException("Failed to write blob segment", e);
+        }
+        refsByPosition.putAll(refs);
+        offloadedCounter.increment(refs.size());
+        return refs;
+    }
+
+    @Scheduled(cron = "${log.blob.cleanup-cron:0 15 * * * *}")
+    public void deleteExpiredSegments() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        File[] segments = directory.toFile().listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (segments == null) {
+            return;
+        }
+        for (File file : segments) {
+            synchronized (this) {
+                if (file.getName().equals(segmentName) || file.lastModified() >= cutoff) {
+                    continue;
+                }
+            }
+            if (file.delete()) {
+                directory.resolve(file.getName() + INDEX_SUFFIX).toFile().delete();
+                logger.info("Deleted expired blob segment: {}", file.getName());
+            }
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        closeSegment();
+        segmentName = "segment-" + LocalDateTime.now().format(SEGMENT_NAME) + SEGMENT_SUFFIX;
+        segment = FileChannel.open(directory.resolve(segmentName),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        index = FileChannel.open(directory.resolve(segmentName + INDEX_SUFFIX),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logger.info("Opened blob segment: {}", segmentName);
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.force(true);
+            segment.close();
+            segment = null;
+            index.force(true);
+            index.close();
+            index = null;
+        }
+    }
+
+    private void flushIndex(StringBuilder indexLines) throws IOException {
+        if (indexLines.length() > 0) {
+            write(index, ByteBuffer.wrap(indexLines.toString().getBytes(StandardCharsets.UTF_8)));
+            indexLines.setLength(0);
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] compress(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        try {
+            closeSegment();
+        } catch (IOException e) {
+            logger.warn("Failed to close blob segment {}", segmentName, e);
+        }
+    }
+}
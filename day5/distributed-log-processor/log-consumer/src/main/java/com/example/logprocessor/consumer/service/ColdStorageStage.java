@@ -0,0 +1,37 @@
+package com.example.logprocessor.consumer.service;
+
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ColdStorageStage extends StorageStage<ConsumedLogEvent> {
+
+    private final FileStorageService fileStorageService;
+
+    @Autowired
+    public ColdStorageStage(FileStorageService fileStorageService,
+                            MeterRegistry meterRegistry,
+                            @Value("${log.storage.cold.lanes:1}") int lanes,
+                            @Value("${log.storage.cold.queue-capacity:10000}") int queueCapacity,
+                            @Value("${log.storage.cold.batch-size:1000}") int batchSize,
+                            @Value("${log.storage.cold.linger-ms:200}") long lingerMs,
+                            @Value("${log.storage.max-attempts:3}") int maxAttempts) {
+        super("cold", lanes, queueCapacity, batchSize, lingerMs, maxAttempts, meterRegistry);
+        this.fileStorageService = fileStorageService;
+    }
+
+    @Override
+    protected Object laneKey(ConsumedLogEvent event) {
+        return event.getEvent().getTraceId();
+    }
+
+    @Override
+    protected void writeBatch(List<ConsumedLogEvent> events) {
+        fileStorageService.storeLogEvents(events);
+    }
+}
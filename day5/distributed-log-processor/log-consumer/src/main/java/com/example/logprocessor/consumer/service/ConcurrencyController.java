@@ -0,0 +1,261 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Samples the group's lag on the main topic and resizes the listener container within [min, max], never beyond
+// the partition count. The target is the concurrency whose measured per-consumer throughput keeps up with the
+// inflow and also drains the backlog within target-drain-seconds. Sampling makes blocking AdminClient calls and a
+// resize waits for in-flight records, so it runs on its own thread rather than the shared scheduler.
+@Service
+public class ConcurrencyController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyController.class);
+    private static final long ADMIN_TIMEOUT_SECONDS = 10;
+
+    @Value("${log.consumer.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${log.consumer.concurrency.min:1}")
+    private int minConcurrency;
+
+    @Value("${log.consumer.concurrency.max:6}")
+    private int maxConcurrency;
+
+    @Value("${log.consumer.concurrency.scale-down-lag:1000}")
+    private long scaleDownLag;
+
+    @Value("${log.consumer.concurrency.target-drain-seconds:60}")
+    private long targetDrainSeconds;
+
+    @Value("${log.consumer.concurrency.cooldown-ms:60000}")
+    private long cooldownMs;
+
+    @Value("${log.consumer.concurrency.sample-interval-ms:10000}")
+    private long sampleIntervalMs;
+
+    @Value("${log.consumer.concurrency.drain-timeout-ms:30000}")
+    private long drainTimeoutMs;
+
+    @Value("${spring.kafka.consumer.group-id:log-consumer-group}")
+    private String groupId;
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final OffsetCommitTracker offsetCommitTracker;
+    private final MeterRegistry meterRegistry;
+    private final AdminClient adminClient;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Integer, AtomicLong> partitionLag = new ConcurrentHashMap<>();
+    private final AtomicLong totalLag = new AtomicLong();
+    private volatile double consumeRate;
+    private volatile double produceRate;
+    private volatile double drainEtaSeconds;
+    private volatile int currentConcurrency;
+    private long lastSampleNanos;
+    private long lastCommittedSum = -1;
+    private long lastEndSum = -1;
+    private long lastResizeMillis;
+
+    @Autowired
+    public ConcurrencyController(KafkaListenerEndpointRegistry listenerRegistry,
+                                 OffsetCommitTracker offsetCommitTracker,
+                                 KafkaAdmin kafkaAdmin,
+                                 MeterRegistry meterRegistry) {
+        this.listenerRegistry = listenerRegistry;
+        this.offsetCommitTracker = offsetCommitTracker;
+        this.meterRegistry = meterRegistry;
+        this.adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "consumer-concurrency");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("log_consumer_lag", totalLag, AtomicLong::get)
+                .description("Total records the consumer group is behind on the main topic")
+                .register(meterRegistry);
+        Gauge.builder("log_consumer_consume_rate", this, c -> c.consumeRate)
+                .description("Records committed per second by the consumer group")
+                .register(meterRegistry);
+        Gauge.builder("log_consumer_produce_rate", this, c -> c.produceRate)
+                .description("Records appended per second to the main topic")
+                .register(meterRegistry);
+        Gauge.builder("log_consumer_drain_eta_seconds", this, c -> c.drainEtaSeconds)
+                .description("Estimated seconds until the lag is drained; -1 while lag is not shrinking")
+                .register(meterRegistry);
+        Gauge.builder("log_consumer_concurrency", this, c -> c.currentConcurrency)
+                .description("Current number of consumer threads on the main topic")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::sample, sampleIntervalMs, sampleIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void sample() {
+        if (!enabled) {
+            return;
+        }
+        MessageListenerContainer listenerContainer = listenerRegistry.getListenerContainer(BackpressureController.LISTENER_ID);
+        if (!(listenerContainer instanceof ConcurrentMessageListenerContainer) || !listenerContainer.isRunning()) {
+            return;
+        }
+        ConcurrentMessageListenerContainer<?, ?> container = (ConcurrentMessageListenerContainer<?, ?>) listenerContainer;
+        currentConcurrency = container.getConcurrency();
+
+        try {
+            int partitionCount = sampleLag();
+            resize(container, partitionCount);
+        } catch (Exception e) {
+            logger.warn("Failed to sample consumer lag for group {}", groupId, e);
+        }
+    }
+
+    private int sampleLag() throws Exception {
+        TopicDescription topic = adminClient.describeTopics(List.of(RetryRouter.MAIN_TOPIC)).allTopicNames()
+                .get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS).get(RetryRouter.MAIN_TOPIC);
+        Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+        topic.partitions().forEach(p -> latest.put(new TopicPartition(RetryRouter.MAIN_TOPIC, p.partition()), OffsetSpec.latest()));
+
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets =
+                adminClient.listOffsets(latest).all().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(ADMIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        long lagSum = 0;
+        long committedSum = 0;
+        long endSum = 0;
+        for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> entry : endOffsets.entrySet()) {
+            long end = entry.getValue().offset();
+            OffsetAndMetadata offset = committed.get(entry.getKey());
+            long position = offset != null ? offset.offset() : 0;
+            long lag = Math.max(0, end - position);
+            partitionLagGauge(entry.getKey().partition()).set(lag);
+            lagSum += lag;
+            committedSum += position;
+            endSum += end;
+        }
+        totalLag.set(lagSum);
+
+        long now = System.nanoTime();
+        if (lastCommittedSum >= 0) {
+            double elapsedSeconds = (now - lastSampleNanos) / 1_000_000_000.0;
+            consumeRate = Math.max(0, committedSum - lastCommittedSum) / elapsedSeconds;
+            produceRate = Math.max(0, endSum - lastEndSum) / elapsedSeconds;
+            double drainRate = consumeRate - produceRate;
+            drainEtaSeconds = lagSum == 0 ? 0 : drainRate > 0 ? lagSum / drainRate : -1;
+        }
+        lastSampleNanos = now;
+        lastCommittedSum = committedSum;
+        lastEndSum = endSum;
+        return topic.partitions().size();
+    }
+
+    private void resize(ConcurrentMessageListenerContainer<?, ?> container, int partitionCount) {
+        int current = container.getConcurrency();
+        int ceiling = Math.max(minConcurrency, Math.min(maxConcurrency, partitionCount));
+        long lag = totalLag.get();
+
+        int desired = current;
+        if (lag > scaleDownLag) {
+            if (consumeRate > 0) {
+                // Throughput one consumer thread has shown, and the rate needed to absorb inflow plus backlog
+                double perConsumerRate = consumeRate / current;
+                double requiredRate = produceRate + (double) lag / targetDrainSeconds;
+                desired = (int) Math.ceil(requiredRate / perConsumerRate);
+            } else {
+                desired = current + 1;
+            }
+            desired = Math.max(desired, current);
+        } else if (consumeRate > 0 && produceRate < (consumeRate / current) * (current - 1)) {
+            // Quiet: step down one thread at a time while the remaining threads still cover the inflow
+            desired = current - 1;
+        }
+        desired = Math.max(minConcurrency, Math.min(ceiling, desired));
+
+        if (desired == current || System.currentTimeMillis() - lastResizeMillis < cooldownMs) {
+            return;
+        }
+        lastResizeMillis = System.currentTimeMillis();
+        logger.info("Resizing {} concurrency {} -> {} (lag={}, consume={}/s, produce={}/s, eta={}s)",
+                   BackpressureController.LISTENER_ID, current, desired, lag,
+                   String.format("%.1f", consumeRate), String.format("%.1f", produceRate),
+                   String.format("%.0f", drainEtaSeconds));
+
+        // Stop fetching and let the storage tiers finish what is in flight, so the stopping consumers commit it.
+        // With static membership a stop revokes nothing, so the rebalance listener would not drain it.
+        Collection<TopicPartition> assigned = container.getAssignedPartitions();
+        Collection<TopicPartition> draining = assigned != null ? List.copyOf(assigned) : List.of();
+        container.pause();
+        awaitPaused(container);
+        offsetCommitTracker.awaitDrained(draining, drainTimeoutMs);
+
+        int target = desired;
+        container.stop(() -> {
+            // Whatever did not drain belonged to the stopped consumers and will be redelivered
+            offsetCommitTracker.reset(draining);
+            container.resume();
+            container.setConcurrency(target);
+            container.start();
+            currentConcurrency = target;
+        });
+    }
+
+    // A pause takes effect at the consumers' next poll, after the records already fetched have been dispatched
+    private void awaitPaused(ConcurrentMessageListenerContainer<?, ?> container) {
+        long deadline = System.currentTimeMillis() + drainTimeoutMs;
+        while (!container.isContainerPaused() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private AtomicLong partitionLagGauge(int partition) {
+        return partitionLag.computeIfAbsent(partition, p -> {
+            AtomicLong lag = new AtomicLong();
+            Gauge.builder("log_consumer_partition_lag", lag, AtomicLong::get)
+                    .description("Records the consumer group is behind on one main-topic partition")
+                    .tag("partition", String.valueOf(p))
+                    .register(meterRegistry);
+            return lag;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        adminClient.close();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.logprocessor.consumer.service;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Kafka positions persisted next to the warm-tier rows they produced. In exactly-once mode every warm batch
+// advances these rows in its own transaction, and on assignment the consumer rewinds to here if Kafka's commit is ahead.
+@Service
+public class ConsumerOffsetStore {
+
+    public static final String EXACTLY_ONCE = "exactly-once";
+
+    private static final String REGISTER_SQL =
+        "INSERT INTO consumer_offsets (consumer_group, topic, partition, committed_offset) " +
+        "VALUES (?, ?, ?, -1) ON CONFLICT (consumer_group, topic, partition) DO NOTHING";
+    private static final String SELECT_SQL =
+        "SELECT committed_offset FROM consumer_offsets WHERE consumer_group = ? AND topic = ? AND partition = ?";
+    private static final String UPSERT_SQL =
+        "INSERT INTO consumer_offsets (consumer_group, topic, partition, committed_offset, updated_at) " +
+        "VALUES (?, ?, ?, ?, NOW()) ON CONFLICT (consumer_group, topic, partition) DO UPDATE " +
+        "SET committed_offset = GREATEST(consumer_offsets.committed_offset, EXCLUDED.committed_offset), updated_at = NOW()";
+    private static final Comparator<TopicPartition> LOCK_ORDER =
+        Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition);
+
+    @Value("${spring.kafka.consumer.group-id:log-consumer-group}")
+    private String consumerGroup;
+
+    @Value("${log.consumer.sink-mode:at-least-once}")
+    private String sinkMode;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ConsumerOffsetStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isExactlyOnce() {
+        return EXACTLY_ONCE.equalsIgnoreCase(sinkMode);
+    }
+
+    // Returns the last offset persisted for each partition; -1 when nothing has been stored yet
+    public Map<TopicPartition, Long> register(Collection<TopicPartition> topicPartitions) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition topicPartition : topicPartitions) {
+            // Seed the row so later batches always have a row to lock
+            jdbcTemplate.update(REGISTER_SQL, consumerGroup, topicPartition.topic(), topicPartition.partition());
+            offsets.put(topicPartition, selectOffset(topicPartition, ""));
+        }
+        return offsets;
+    }
+
+    // Must run inside the batch transaction: row locks serialize a previous owner's late batch with the new owner's.
+    // Rows are locked in topic/partition order so concurrent batches spanning several partitions cannot deadlock.
+    public Map<TopicPartition, Long> lockOffsets(Collection<TopicPartition> topicPartitions) {
+        List<TopicPartition> ordered = new ArrayList<>(topicPartitions);
+        ordered.sort(LOCK_ORDER);
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition topicPartition : ordered) {
+            offsets.put(topicPartition, selectOffset(topicPartition, " FOR UPDATE"));
+        }
+        return offsets;
+    }
+
+    public void saveOffsets(Map<TopicPartition, Long> offsets) {
+        List<Object[]> rows = new ArrayList<>(offsets.size());
+        offsets.forEach((topicPartition, offset) ->
+            rows.add(new Object[] { consumerGroup, topicPartition.topic(), topicPartition.partition(), offset }));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    private long selectOffset(TopicPartition topicPartition, String lockClause) {
+        List<Long> offsets = jdbcTemplate.queryForList(SELECT_SQL + lockClause, Long.class,
+            consumerGroup, topicPartition.topic(), topicPartition.partition());
+        return offsets.isEmpty() ? -1L : offsets.get(0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class DeadLetterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadLetterService.class);
+    private static final String REDRIVE_GROUP = "log-consumer-dlq-redrive";
+    private static final String HEADER_REDRIVE_COUNT = "x-redrive-count";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+    private static final int MAX_EMPTY_POLLS = 3;
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final Counter redrivenCounter;
+
+    @Autowired
+    public DeadLetterService(ConsumerFactory<String, String> consumerFactory,
+                             KafkaTemplate<String, String> kafkaTemplate,
+                             MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.kafkaTemplate = kafkaTemplate;
+        this.redrivenCounter = Counter.builder("log_events_redriven_total")
+                .description("Total number of dead-lettered log events republished to the main topic")
+                .register(meterRegistry);
+    }
+
+    // Moves up to limit dead-lettered records back onto the main topic with a fresh retry budget.
+    // The redrive group's offsets are committed only for records whose republish was acknowledged.
+    public synchronized int redrive(int limit) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(limit));
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer(REDRIVE_GROUP, "redrive", null, overrides)) {
+            consumer.subscribe(List.of(RetryRouter.DLQ_TOPIC));
+
+            int redriven = 0;
+            int emptyPolls = 0;
+            while (redriven < limit && emptyPolls < MAX_EMPTY_POLLS) {
+                ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    emptyPolls++;
+                    continue;
+                }
+
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, String> record : records) {
+                    if (redriven >= limit) {
+                        break;
+                    }
+                    sends.add(kafkaTemplate.send(toMainTopic(record)));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                                new OffsetAndMetadata(record.offset() + 1));
+                    redriven++;
+                }
+
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0])).join();
+                consumer.commitSync(offsets);
+                redrivenCounter.increment(sends.size());
+            }
+
+            logger.info("Redrove {} dead-lettered log events to {}", redriven, RetryRouter.MAIN_TOPIC);
+            return redriven;
+        }
+    }
+
+    private ProducerRecord<String, String> toMainTopic(ConsumerRecord<String, String> record) {
+        ProducerRecord<String, String> redriven = new ProducerRecord<>(RetryRouter.MAIN_TOPIC, record.key(), record.value());
+        // Keep the failure history, but drop the retry schedule so the record starts over. The failed tiers
+        // stay: the record returns at a new offset, so tiers that already stored it would write it again.
+        for (Header header : record.headers()) {
+            if (!header.key().equals(RetryRouter.HEADER_ATTEMPT)
+                    && !header.key().equals(RetryRouter.HEADER_DUE_AT)
+                    && !header.key().equals(HEADER_REDRIVE_COUNT)) {
+                redriven.headers().add(header);
+            }
+        }
+        redriven.headers().add(HEADER_REDRIVE_COUNT,
+            String.valueOf(redriveCount(record) + 1).getBytes(StandardCharsets.UTF_8));
+        return redriven;
+    }
+
+    private int redriveCount(ConsumerRecord<String, String> record) {
+        Header header = record.headers().lastHeader(HEADER_REDRIVE_COUNT);
+        return header != null ? Integer.parseInt(new String(header.value(), StandardCharsets.UTF_8)) : 0;
+    }
+}
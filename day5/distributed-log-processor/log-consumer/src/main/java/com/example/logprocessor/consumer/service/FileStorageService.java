@@ -1,16 +1,23 @@
 package com.example.logprocessor.consumer.service;
 
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
 import com.example.logprocessor.consumer.model.LogEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -22,10 +29,10 @@ public class FileStorageService {
     private final String coldStorageDirectory;
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
-    public FileStorageService() {
+    public FileStorageService(@Value("${log.cold.directory:${log.data-directory}/cold/}") String coldStorageDirectory) {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
-        this.coldStorageDirectory = "logs/cold/";
+        this.coldStorageDirectory = coldStorageDirectory.endsWith("/") ? coldStorageDirectory : coldStorageDirectory + "/";
         
         // Create cold storage directory if it doesn't exist
         File dir = new File(coldStorageDirectory);
@@ -34,32 +41,53 @@ public class FileStorageService {
         }
     }
 
-    public void storeLogEvent(LogEvent logEvent) {
+    public void storeLogEvents(List<ConsumedLogEvent> logEvents) {
+        // Group by target file so each file is opened once per batch
+        Map<String, List<ConsumedLogEvent>> eventsByFile = new LinkedHashMap<>();
+        for (ConsumedLogEvent logEvent : logEvents) {
+            eventsByFile.computeIfAbsent(generateFileName(logEvent.getEvent()), k -> new ArrayList<>()).add(logEvent);
+        }
+
         lock.writeLock().lock();
         try {
-            String fileName = generateFileName(logEvent);
-            String jsonMessage = objectMapper.writeValueAsString(logEvent);
-            
-            try (FileWriter writer = new FileWriter(coldStorageDirectory + fileName, true)) {
-                writer.write(jsonMessage + "\n");
-                writer.flush();
+            for (Map.Entry<String, List<ConsumedLogEvent>> entry : eventsByFile.entrySet()) {
+                try (BufferedWriter writer = new BufferedWriter(
+                        new FileWriter(coldStorageDirectory + entry.getKey(), true))) {
+                    for (ConsumedLogEvent logEvent : entry.getValue()) {
+                        writer.write(toLine(logEvent));
+                        writer.write("\n");
+                    }
+                }
             }
             
-            logger.debug("Successfully stored log event in cold storage: trace_id={}", logEvent.getTraceId());
+            logger.debug("Successfully stored {} log events in cold storage", logEvents.size());
             
         } catch (IOException e) {
-            logger.error("Failed to write log event to cold storage: trace_id={}", logEvent.getTraceId(), e);
+            logger.error("Failed to write {} log events to cold storage", logEvents.size(), e);
             throw new RuntimeException("Failed to write to cold storage", e);
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    // The record's JSON is written as received; only a multi-line payload has to be re-encoded onto one line
+    private String toLine(ConsumedLogEvent logEvent) throws IOException {
+        String rawJson = logEvent.getRawJson();
+        if (rawJson != null && rawJson.indexOf('\n') < 0) {
+            return rawJson;
+        }
+        return objectMapper.writeValueAsString(logEvent.getEvent());
+    }
+
     private String generateFileName(LogEvent logEvent) {
         String date = logEvent.getTimestamp().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
         return logEvent.getLevel().toLowerCase() + "-" + date + ".log";
     }
 
+    public String getColdStorageDirectory() {
+        return coldStorageDirectory;
+    }
+
     public long getFileSize(String fileName) {
         File file = new File(coldStorageDirectory + fileName);
         return file.exists() ? file.length() : 0;
@@ -0,0 +1,141 @@
+package com.example.logprocessor.consumer.service;
+
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
+import com.example.logprocessor.consumer.model.LogEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Hot tier layout, one set of keys per UTC hour bucket, all expiring together. Events are keyed by their source
+// Kafka position ("<topic>-<partition>-<offset>"), which is unique per event and makes redelivery and
+// retry-topic rewrites idempotent:
+//   log:hot:events:<bucket>               hash   position -> event JSON as produced to Kafka
+//   log:hot:idx:<bucket>:<level>:<source> zset   position scored by event time (epoch millis, UTC)
+//   log:hot:dims:<bucket>                 set    "<level>:<source>" pairs that have an index in the bucket
+//   log:hot:traces:<bucket>               hash   trace_id -> position of the latest event with that trace id
+@Component
+public class HotStorageStage extends StorageStage<ConsumedLogEvent> {
+
+    private static final String EVENTS_PREFIX = "log:hot:events:";
+    private static final String INDEX_PREFIX = "log:hot:idx:";
+    private static final String DIMENSIONS_PREFIX = "log:hot:dims:";
+    private static final String TRACES_PREFIX = "log:hot:traces:";
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHH");
+    private static final Duration HOT_STORAGE_TTL = Duration.ofHours(24);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public HotStorageStage(RedisTemplate<String, String> redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${log.storage.hot.lanes:4}") int lanes,
+                           @Value("${log.storage.hot.queue-capacity:10000}") int queueCapacity,
+                           @Value("${log.storage.hot.batch-size:200}") int batchSize,
+                           @Value("${log.storage.hot.linger-ms:10}") long lingerMs,
+                           @Value("${log.storage.max-attempts:3}") int maxAttempts) {
+        super("hot", lanes, queueCapacity, batchSize, lingerMs, maxAttempts, meterRegistry);
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+    }
+
+    @Override
+    protected Object laneKey(ConsumedLogEvent event) {
+        return event.getEvent().getTraceId();
+    }
+
+    @Override
+    protected void writeBatch(List<ConsumedLogEvent> events) throws Exception {
+        LocalDateTime oldestRetained = LocalDateTime.now(ZoneOffset.UTC).minus(HOT_STORAGE_TTL);
+        List<HotEntry> entries = new ArrayList<>(events.size());
+        for (ConsumedLogEvent consumed : events) {
+            LogEvent event = consumed.getEvent();
+            // Events older than the hot window would land in an already-expired bucket
+            if (event.getTimestamp().isBefore(oldestRetained)) {
+                continue;
+            }
+            // Store the record's JSON as received rather than serializing the event again, unless the
+            // message was offloaded and only its prefix and blob reference belong in memory
+            String json = consumed.getRawJson() != null && event.getMessageRef() == null
+                ? consumed.getRawJson() : objectMapper.writeValueAsString(event);
+            entries.add(new HotEntry(consumed, json));
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        // One pipelined round trip for the whole batch
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                Map<LocalDateTime, Set<String>> indexKeysByBucket = new HashMap<>();
+
+                for (HotEntry entry : entries) {
+                    LocalDateTime bucketStart = entry.event.getTimestamp().truncatedTo(ChronoUnit.HOURS);
+                    String bucket = bucketStart.format(BUCKET_FORMAT);
+                    String dimension = entry.event.getLevel() + ":" + entry.event.getSource();
+                    String indexKey = INDEX_PREFIX + bucket + ":" + dimension;
+
+                    ops.opsForHash().put(EVENTS_PREFIX + bucket, entry.field, entry.json);
+                    ops.opsForZSet().add(indexKey, entry.field, toScore(entry.event.getTimestamp()));
+                    ops.opsForSet().add(DIMENSIONS_PREFIX + bucket, dimension);
+                    if (entry.event.getTraceId() != null) {
+                        ops.opsForHash().put(TRACES_PREFIX + bucket, entry.event.getTraceId(), entry.field);
+                    }
+
+                    indexKeysByBucket.computeIfAbsent(bucketStart, b -> new HashSet<>()).add(indexKey);
+                }
+
+                // Whole buckets expire once their last hour has aged out of the hot window
+                indexKeysByBucket.forEach((bucketStart, indexKeys) -> {
+                    String bucket = bucketStart.format(BUCKET_FORMAT);
+                    Date expireAt = Date.from(bucketStart.plusHours(1).plus(HOT_STORAGE_TTL)
+                            .toInstant(ZoneOffset.UTC));
+                    ops.expireAt(EVENTS_PREFIX + bucket, expireAt);
+                    ops.expireAt(DIMENSIONS_PREFIX + bucket, expireAt);
+                    ops.expireAt(TRACES_PREFIX + bucket, expireAt);
+                    indexKeys.forEach(indexKey -> ops.expireAt(indexKey, expireAt));
+                });
+                return null;
+            }
+        });
+    }
+
+    private static double toScore(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static final class HotEntry {
+        private final LogEvent event;
+        private final String json;
+        private final String field;
+
+        private HotEntry(ConsumedLogEvent consumed, String json) {
+            this.event = consumed.getEvent();
+            this.json = json;
+            this.field = consumed.getSourcePosition();
+        }
+    }
+}
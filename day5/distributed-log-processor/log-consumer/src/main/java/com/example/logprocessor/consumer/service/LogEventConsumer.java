@@ -1,34 +1,60 @@
 package com.example.logprocessor.consumer.service;
 
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
 import com.example.logprocessor.consumer.model.LogEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 @Service
-public class LogEventConsumer {
+public class LogEventConsumer implements ConsumerSeekAware {
 
     private static final Logger logger = LoggerFactory.getLogger(LogEventConsumer.class);
 
     private final LogStorageService logStorageService;
     private final RotationPolicyService rotationPolicyService;
+    private final OffsetCommitTracker offsetCommitTracker;
+    private final ConsumerOffsetStore consumerOffsetStore;
+    private final BackpressureController backpressureController;
+    private final RetryRouter retryRouter;
     private final ObjectMapper objectMapper;
     private final Counter logsConsumedCounter;
     private final Timer processingTimer;
 
+    @Value("${log.consumer.retry.max-pause-ms:30000}")
+    private long maxRetryPauseMs;
+
     @Autowired
     public LogEventConsumer(LogStorageService logStorageService,
                            RotationPolicyService rotationPolicyService,
+                           OffsetCommitTracker offsetCommitTracker,
+                           ConsumerOffsetStore consumerOffsetStore,
+                           BackpressureController backpressureController,
+                           RetryRouter retryRouter,
                            MeterRegistry meterRegistry) {
         this.logStorageService = logStorageService;
         this.rotationPolicyService = rotationPolicyService;
+        this.offsetCommitTracker = offsetCommitTracker;
+        this.consumerOffsetStore = consumerOffsetStore;
+        this.backpressureController = backpressureController;
+        this.retryRouter = retryRouter;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         
@@ -40,9 +66,40 @@ public class LogEventConsumer {
                 .register(meterRegistry);
     }
 
-    @KafkaListener(topics = "log-events", groupId = "log-consumer-group")
-    public void consumeLogEvent(String message) {
+    // Each container gets its own static member id (children are suffixed -n), so a restart within the
+    // session timeout reclaims the same partitions without a rebalance
+    @KafkaListener(id = BackpressureController.LISTENER_ID, topics = RetryRouter.MAIN_TOPIC, groupId = "log-consumer-group",
+                   concurrency = "${log.consumer.concurrency.min:1}",
+                   properties = "group.instance.id=${log.consumer.instance-id:log-consumer-1}-main")
+    public void consumeLogEvent(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        process(record, acknowledgment);
+    }
+
+    // Each retry tier has its own container, so a long delay on one tier never holds back another
+    @KafkaListener(id = "log-retry-0", topics = RetryRouter.RETRY_TOPIC_0, groupId = "log-consumer-group",
+                   properties = "group.instance.id=${log.consumer.instance-id:log-consumer-1}-retry-0")
+    @KafkaListener(id = "log-retry-1", topics = RetryRouter.RETRY_TOPIC_1, groupId = "log-consumer-group",
+                   properties = "group.instance.id=${log.consumer.instance-id:log-consumer-1}-retry-1")
+    @KafkaListener(id = "log-retry-2", topics = RetryRouter.RETRY_TOPIC_2, groupId = "log-consumer-group",
+                   properties = "group.instance.id=${log.consumer.instance-id:log-consumer-1}-retry-2")
+    public void consumeRetry(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        long wait = RetryRouter.readDueAt(record) - System.currentTimeMillis();
+        if (wait > 0) {
+            // Records on a tier share one delay, so nothing behind this one is due yet either; the container
+            // stays paused (and keeps polling) until then, then redelivers from this record
+            acknowledgment.nack(Duration.ofMillis(Math.min(wait, maxRetryPauseMs)));
+            return;
+        }
+        process(record, acknowledgment);
+    }
+
+    private void process(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
         Timer.Sample sample = Timer.start();
+        String message = record.value();
+        // The offset is committed only once every storage tier has acknowledged the event
+        Runnable markComplete = offsetCommitTracker.track(record, acknowledgment);
+        // Pause before the write-behind buffer outgrows the storage queues
+        backpressureController.evaluate();
         
         try {
             logger.debug("Received log event: {}", message);
@@ -50,20 +107,62 @@ public class LogEventConsumer {
             // Parse the JSON message
             LogEvent logEvent = objectMapper.readValue(message, LogEvent.class);
             
-            // Store the log event using the storage service
-            logStorageService.storeLogEvent(logEvent);
+            // Hand the event to the storage tiers without waiting for them; retries only revisit the failed tiers
+            ConsumedLogEvent consumedLogEvent = new ConsumedLogEvent(logEvent, record.topic(), record.partition(),
+                record.offset(), message, RetryRouter.readSourcePosition(record));
+            Set<String> tiers = RetryRouter.readTiers(record.headers());
+            logStorageService.storeLogEvent(consumedLogEvent, tiers).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    logsConsumedCounter.increment();
+                    logger.debug("Successfully processed log event: trace_id={}", logEvent.getTraceId());
+                    sample.stop(processingTimer);
+                    markComplete.run();
+                } else {
+                    logger.error("Failed to store log event: trace_id={}", logEvent.getTraceId(), ex);
+                    sample.stop(processingTimer);
+                    completeAfterRouting(record, retryRouter.routeFailure(record, ex), markComplete);
+                }
+            });
             
             // Check if rotation is needed
             rotationPolicyService.evaluateRotationPolicies();
             
-            logsConsumedCounter.increment();
-            logger.debug("Successfully processed log event: trace_id={}", logEvent.getTraceId());
-            
         } catch (Exception e) {
             logger.error("Failed to process log event: {}", message, e);
-            // In production, you might want to send this to a dead letter queue
-        } finally {
             sample.stop(processingTimer);
+            completeAfterRouting(record, retryRouter.routeFailure(record, e), markComplete);
         }
     }
+
+    private void completeAfterRouting(ConsumerRecord<String, String> record, CompletableFuture<Void> routing,
+                                      Runnable markComplete) {
+        routing.whenComplete((result, ex) -> {
+            if (ex == null) {
+                markComplete.run();
+            } else {
+                // Leave the offset uncommitted so the record is redelivered rather than lost
+                logger.error("Failed to route failed record {}-{}@{} for retry",
+                            record.topic(), record.partition(), record.offset(), ex);
+            }
+        });
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        if (!consumerOffsetStore.isExactlyOnce()) {
+            return;
+        }
+
+        // Resume from whichever is further back: Kafka's committed offset only advances once every tier has
+        // acknowledged, the stored offset once the warm tier has. Replayed records the warm tier already holds
+        // are skipped by offset; hot rewrites them in place and cold may append a duplicate line, as at-least-once would.
+        consumerOffsetStore.register(assignments.keySet()).forEach((topicPartition, storedOffset) -> {
+            Long position = assignments.get(topicPartition);
+            if (storedOffset >= 0 && position != null && storedOffset + 1 < position) {
+                logger.info("Rewinding {} from committed offset {} to stored offset {}",
+                            topicPartition, position, storedOffset + 1);
+                callback.seek(topicPartition.topic(), topicPartition.partition(), storedOffset + 1);
+            }
+        });
+    }
 }
@@ -0,0 +1,173 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@Service
+public class LogPartitionManager implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogPartitionManager.class);
+    private static final String PARENT_TABLE = "log_events";
+    private static final String PARTITION_PREFIX = "log_events_p";
+    private static final String DEFAULT_PARTITION = "log_events_default";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Value("${log.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${log.partitioning.premake-days:3}")
+    private int premakeDays;
+
+    @Value("${log.partitioning.retention-days:30}")
+    private int retentionDays;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter partitionsCreatedCounter;
+    private final Counter partitionsDroppedCounter;
+    private volatile boolean running;
+
+    @Autowired
+    public LogPartitionManager(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionsCreatedCounter = Counter.builder("log_partitions_created_total")
+                .description("Total number of daily log_events partitions created")
+                .register(meterRegistry);
+        this.partitionsDroppedCounter = Counter.builder("log_partitions_dropped_total")
+                .description("Total number of daily log_events partitions retired")
+                .register(meterRegistry);
+    }
+
+    // Runs in a lifecycle phase before the Kafka listener containers start: a row for a day without its
+    // partition lands in the default partition, and from then on that day's partition can no longer be created
+    @Override
+    public void start() {
+        maintainPartitions();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 1;
+    }
+
+    @Scheduled(cron = "${log.partitioning.maintenance-cron:0 5 * * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            if (!isPartitioned()) {
+                logger.warn("Table {} is not partitioned; skipping partition maintenance", PARENT_TABLE);
+                return;
+            }
+            createUpcomingPartitions();
+            retireExpiredPartitions();
+        } catch (Exception e) {
+            logger.error("Error during partition maintenance", e);
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = ?",
+            Integer.class, PARENT_TABLE);
+        return count != null && count > 0;
+    }
+
+    // Event timestamps are stored in UTC, so days are UTC days
+    private void createUpcomingPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<String> existing = listPartitions();
+        for (int i = 0; i <= premakeDays; i++) {
+            String partitionName = partitionName(today.plusDays(i));
+            if (!existing.contains(partitionName)) {
+                createPartition(partitionName, today.plusDays(i));
+            }
+        }
+    }
+
+    private void createPartition(String partitionName, LocalDate day) {
+        try {
+            jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                partitionName, PARENT_TABLE, day, day.plusDays(1)));
+            partitionsCreatedCounter.increment();
+            logger.info("Created log partition: {}", partitionName);
+        } catch (DataAccessException e) {
+            // Typically the default partition already holds rows for this day
+            logger.warn("Failed to create log partition: {}", partitionName, e);
+        }
+    }
+
+    private void retireExpiredPartitions() {
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+
+        for (String partitionName : listPartitions()) {
+            LocalDate day = parsePartitionDay(partitionName);
+            if (day != null && day.isBefore(cutoff)) {
+                dropPartition(partitionName);
+            }
+        }
+
+        // The default partition only catches stragglers, so a plain delete stays cheap
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?", cutoff.atStartOfDay());
+    }
+
+    private void dropPartition(String partitionName) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partitionName);
+        jdbcTemplate.execute("DROP TABLE " + partitionName);
+        partitionsDroppedCounter.increment();
+        logger.info("Dropped expired log partition: {}", partitionName);
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ?",
+            String.class, PARENT_TABLE);
+    }
+
+    private String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+
+    private LocalDate parsePartitionDay(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
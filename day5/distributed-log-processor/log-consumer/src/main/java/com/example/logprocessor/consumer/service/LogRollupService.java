@@ -0,0 +1,192 @@
+package com.example.logprocessor.consumer.service;
+
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
+import com.example.logprocessor.consumer.model.LogEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// Maintains log_rollups: (granularity, bucket_start, source, level) -> event_count. Warm batches add their
+// per-minute counts in the same transaction as the rows, so replays skipped in exactly-once mode are never
+// counted twice. Compaction moves settled minute rows into hour rows and old hour rows into day rows; each
+// move is one DELETE ... RETURNING feeding an upsert, so every event is counted in exactly one row at a time.
+@Service
+public class LogRollupService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogRollupService.class);
+
+    private static final String UPSERT_MINUTE_SQL =
+        "INSERT INTO log_rollups (granularity, bucket_start, source, level, event_count) VALUES ('minute', ?, ?, ?, ?) " +
+        "ON CONFLICT (granularity, bucket_start, source, level) " +
+        "DO UPDATE SET event_count = log_rollups.event_count + EXCLUDED.event_count";
+
+    private static final String COMPACT_SQL =
+        "WITH moved AS (" +
+        "  DELETE FROM log_rollups WHERE granularity = ? AND bucket_start < ? " +
+        "  RETURNING bucket_start, source, level, event_count" +
+        ") " +
+        "INSERT INTO log_rollups (granularity, bucket_start, source, level, event_count) " +
+        "SELECT ?, date_trunc(?, bucket_start), source, level, SUM(event_count) FROM moved " +
+        "GROUP BY 2, 3, 4 " +
+        "ON CONFLICT (granularity, bucket_start, source, level) " +
+        "DO UPDATE SET event_count = log_rollups.event_count + EXCLUDED.event_count";
+
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+        .comparing((RollupKey key) -> key.minute)
+        .thenComparing(key -> key.source)
+        .thenComparing(key -> key.level);
+
+    @Value("${log.rollup.minute-retention-hours:48}")
+    private int minuteRetentionHours;
+
+    @Value("${log.rollup.hour-retention-days:30}")
+    private int hourRetentionDays;
+
+    @Value("${log.rollup.day-retention-days:400}")
+    private int dayRetentionDays;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter compactedRowsCounter;
+    private volatile boolean running;
+
+    @Autowired
+    public LogRollupService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.compactedRowsCounter = Counter.builder("log_rollup_rows_compacted_total")
+                .description("Total number of coarser rollup rows written by compaction")
+                .register(meterRegistry);
+    }
+
+    // Must run inside the transaction that inserts the events
+    public void addMinuteCounts(List<ConsumedLogEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // Sorted keys give every lane the same lock order on shared rollup rows, so concurrent upserts cannot deadlock
+        Map<RollupKey, Long> counts = new TreeMap<>(KEY_ORDER);
+        for (ConsumedLogEvent consumed : events) {
+            LogEvent event = consumed.getEvent();
+            counts.merge(new RollupKey(event.getTimestamp().truncatedTo(ChronoUnit.MINUTES), event.getSource(), event.getLevel()),
+                         1L, Long::sum);
+        }
+
+        List<Object[]> rows = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> rows.add(new Object[] { key.minute, key.source, key.level, count }));
+        jdbcTemplate.batchUpdate(UPSERT_MINUTE_SQL, rows);
+    }
+
+    @Scheduled(cron = "${log.rollup.compaction-cron:0 20 * * * *}")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        try {
+            int hourRows = fold("minute", "hour", now.minusHours(minuteRetentionHours).truncatedTo(ChronoUnit.HOURS));
+            int dayRows = fold("hour", "day", now.minusDays(hourRetentionDays).truncatedTo(ChronoUnit.DAYS));
+            int expired = jdbcTemplate.update("DELETE FROM log_rollups WHERE granularity = 'day' AND bucket_start < ?",
+                                              now.minusDays(dayRetentionDays).truncatedTo(ChronoUnit.DAYS));
+            logger.info("Rollup compaction: {} hour rows and {} day rows written, {} day rows expired",
+                       hourRows, dayRows, expired);
+        } catch (Exception e) {
+            logger.error("Error during rollup compaction", e);
+        }
+    }
+
+    // Runs in a lifecycle phase before the Kafka listener containers start, so this instance has not yet
+    // added counts of its own when it checks whether the rollup table is empty
+    @Override
+    public void start() {
+        backfill();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE - 1;
+    }
+
+    // Rows written before rollups existed are counted once, when the rollup table is still empty. The
+    // EXCLUSIVE lock holds off other instances' warm batches; their uncommitted rows are not in this snapshot
+    // and they add their own counts after it commits.
+    public void backfill() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("LOCK TABLE log_rollups IN EXCLUSIVE MODE");
+                Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM log_rollups)", Boolean.class);
+                if (!Boolean.TRUE.equals(empty)) {
+                    return;
+                }
+                int rows = jdbcTemplate.update(
+                    "INSERT INTO log_rollups (granularity, bucket_start, source, level, event_count) " +
+                    "SELECT 'minute', date_trunc('minute', timestamp), source, level, COUNT(*) FROM log_events " +
+                    "GROUP BY date_trunc('minute', timestamp), source, level");
+                if (rows > 0) {
+                    logger.info("Backfilled {} minute rollup rows from existing log events", rows);
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Failed to backfill log rollups", e);
+        }
+    }
+
+    private int fold(String from, String to, LocalDateTime before) {
+        Integer written = transactionTemplate.execute(status -> jdbcTemplate.update(COMPACT_SQL, from, before, to, to));
+        int rows = written != null ? written : 0;
+        compactedRowsCounter.increment(rows);
+        return rows;
+    }
+
+    private static final class RollupKey {
+        private final LocalDateTime minute;
+        private final String source;
+        private final String level;
+
+        private RollupKey(LocalDateTime minute, String source, String level) {
+            this.minute = minute;
+            this.source = source;
+            this.level = level;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof RollupKey)) return false;
+            RollupKey other = (RollupKey) o;
+            return minute.equals(other.minute) && source.equals(other.source) && level.equals(other.level);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(minute, source, level);
+        }
+    }
+}
@@ -1,71 +1,103 @@
 package com.example.logprocessor.consumer.service;
 
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
 import com.example.logprocessor.consumer.model.LogEvent;
-import com.example.logprocessor.consumer.repository.LogEventRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class LogStorageService {
 
-    private static final Logger logger = LoggerFactory.getLogger(LogStorageService.class);
-    private static final String REDIS_LOG_PREFIX = "log:hot:";
-    private static final Duration HOT_STORAGE_TTL = Duration.ofHours(24);
-
-    private final LogEventRepository logEventRepository;
-    private final RedisTemplate<String, String> redisTemplate;
-    private final FileStorageService fileStorageService;
-    private final ObjectMapper objectMapper;
+    private final WarmStorageStage warmStorageStage;
+    private final HotStorageStage hotStorageStage;
+    private final ColdStorageStage coldStorageStage;
+    private final BlobOffloadStage blobOffloadStage;
 
     @Autowired
-    public LogStorageService(LogEventRepository logEventRepository,
-                           RedisTemplate<String, String> redisTemplate,
-                           FileStorageService fileStorageService) {
-        this.logEventRepository = logEventRepository;
-        this.redisTemplate = redisTemplate;
-        this.fileStorageService = fileStorageService;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+    public LogStorageService(WarmStorageStage warmStorageStage,
+                           HotStorageStage hotStorageStage,
+                           ColdStorageStage coldStorageStage,
+                           BlobOffloadStage blobOffloadStage) {
+        this.warmStorageStage = warmStorageStage;
+        this.hotStorageStage = hotStorageStage;
+        this.coldStorageStage = coldStorageStage;
+        this.blobOffloadStage = blobOffloadStage;
+    }
+
+    public CompletableFuture<Void> storeLogEvent(ConsumedLogEvent consumedLogEvent) {
+        return storeLogEvent(consumedLogEvent, null);
     }
 
-    @Transactional
-    public void storeLogEvent(LogEvent logEvent) {
-        try {
-            // Store in warm storage (PostgreSQL) for complex queries
-            LogEvent savedEvent = logEventRepository.save(logEvent);
-            logger.debug("Stored log event in warm storage: id={}", savedEvent.getId());
+    // Stores the event in the given tiers only (all applicable tiers when null), e.g. when retrying a partial failure
+    public CompletableFuture<Void> storeLogEvent(ConsumedLogEvent consumedLogEvent, Set<String> tiers) {
+        if (!blobOffloadStage.shouldOffload(consumedLogEvent)) {
+            return storeInTiers(consumedLogEvent, tiers);
+        }
 
-            // Store in hot storage (Redis) for fast access to recent logs
-            String redisKey = REDIS_LOG_PREFIX + logEvent.getTraceId();
-            String jsonValue = objectMapper.writeValueAsString(logEvent);
-            redisTemplate.opsForValue().set(redisKey, jsonValue, HOT_STORAGE_TTL);
-            logger.debug("Stored log event in hot storage: trace_id={}", logEvent.getTraceId());
+        // Oversized messages go to a blob segment once; the tiers then see a prefix and the reference (cold
+        // keeps the record's original JSON). A failed offload fails every requested tier.
+        return blobOffloadStage.submit(consumedLogEvent)
+            .handle((result, ex) -> {
+                if (ex != null) {
+                    throw new TierWriteException(tiers != null ? tiers : Set.of(warmStorageStage.getTier(),
+                        hotStorageStage.getTier(), coldStorageStage.getTier()), ex);
+                }
+                return result;
+            })
+            .thenCompose(result -> storeInTiers(consumedLogEvent, tiers));
+    }
 
-            // Conditionally store in cold storage based on level and retention policies
-            if (shouldStoreToColdStorage(logEvent)) {
-                fileStorageService.storeLogEvent(logEvent);
-                logger.debug("Stored log event in cold storage: trace_id={}", logEvent.getTraceId());
-            }
+    private CompletableFuture<Void> storeInTiers(ConsumedLogEvent consumedLogEvent, Set<String> tiers) {
+        LogEvent logEvent = consumedLogEvent.getEvent();
+        Map<String, CompletableFuture<Void>> writes = new LinkedHashMap<>();
 
-        } catch (Exception e) {
-            logger.error("Failed to store log event: trace_id={}", logEvent.getTraceId(), e);
-            throw new RuntimeException("Failed to store log event", e);
+        // Warm storage (PostgreSQL) for complex queries, hot storage (Redis) for fast access to recent logs
+        if (includes(tiers, warmStorageStage)) {
+            writes.put(warmStorageStage.getTier(), warmStorageStage.submit(consumedLogEvent));
+        }
+        if (includes(tiers, hotStorageStage)) {
+            writes.put(hotStorageStage.getTier(), hotStorageStage.submit(consumedLogEvent));
         }
+
+        // Conditionally store in cold storage based on level and retention policies
+        if (includes(tiers, coldStorageStage) && shouldStoreToColdStorage(logEvent)) {
+            writes.put(coldStorageStage.getTier(), coldStorageStage.submit(consumedLogEvent));
+        }
+
+        // Each tier drains at its own pace; the event counts as stored once every tier has acknowledged it
+        return CompletableFuture.allOf(writes.values().toArray(new CompletableFuture<?>[0]))
+            .handle((result, ex) -> {
+                if (ex == null) {
+                    return null;
+                }
+                Set<String> failedTiers = new LinkedHashSet<>();
+                Throwable cause = null;
+                for (Map.Entry<String, CompletableFuture<Void>> write : writes.entrySet()) {
+                    if (write.getValue().isCompletedExceptionally()) {
+                        failedTiers.add(write.getKey());
+                        cause = cause != null ? cause : write.getValue().handle((r, e) -> e).join();
+                    }
+                }
+                throw new TierWriteException(failedTiers, cause);
+            });
+    }
+
+    private boolean includes(Set<String> tiers, StorageStage<?> stage) {
+        return tiers == null || tiers.contains(stage.getTier());
     }
 
     private boolean shouldStoreToColdStorage(LogEvent logEvent) {
         // Store critical logs (ERROR, WARN) and older logs in cold storage
         return "ERROR".equals(logEvent.getLevel()) || 
                "WARN".equals(logEvent.getLevel()) ||
-               logEvent.getTimestamp().isBefore(LocalDateTime.now().minusDays(7));
+               logEvent.getTimestamp().isBefore(LocalDateTime.now(ZoneOffset.UTC).minusDays(7));
     }
 }
@@ -0,0 +1,156 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Records complete out of order (tiers drain independently), so a partition's offset is only
+// acknowledged up to the highest offset below which every record has completed.
+@Component
+public class OffsetCommitTracker implements ConsumerAwareRebalanceListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffsetCommitTracker.class);
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+    @Value("${log.consumer.revoke-drain-timeout-ms:10000}")
+    private long revokeDrainTimeoutMs;
+
+    @Autowired
+    public OffsetCommitTracker(MeterRegistry meterRegistry) {
+        Gauge.builder("log_consumer_in_flight_records", this, OffsetCommitTracker::getInFlightCount)
+                .description("Number of consumed records not yet acknowledged by every storage tier")
+                .register(meterRegistry);
+    }
+
+    // Must be called on the consumer thread in offset order; the returned callback may run on any thread
+    public Runnable track(ConsumerRecord<?, ?> record, Acknowledgment acknowledgment) {
+        TopicPartition topicPartition = new TopicPartition(record.topic(), record.partition());
+        PartitionOffsets offsets = partitions.computeIfAbsent(topicPartition, tp -> new PartitionOffsets());
+        long offset = record.offset();
+        offsets.track(offset, acknowledgment);
+        return () -> offsets.complete(offset);
+    }
+
+    public long getInFlightCount() {
+        return partitions.values().stream().mapToLong(PartitionOffsets::size).sum();
+    }
+
+    public Map<TopicPartition, Integer> getInFlightByPartition() {
+        Map<TopicPartition, Integer> inFlight = new HashMap<>();
+        partitions.forEach((topicPartition, offsets) -> inFlight.put(topicPartition, offsets.size()));
+        return inFlight;
+    }
+
+    // Waits until every record tracked on the given partitions has been acknowledged, or the timeout passes
+    public boolean awaitDrained(Collection<TopicPartition> topicPartitions, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        boolean drained = true;
+        for (TopicPartition topicPartition : topicPartitions) {
+            PartitionOffsets offsets = partitions.get(topicPartition);
+            if (offsets != null && !offsets.awaitDrained(deadline)) {
+                logger.warn("Timed out draining {}; {} records will be redelivered", topicPartition, offsets.size());
+                drained = false;
+            }
+        }
+        return drained;
+    }
+
+    // Forgets partitions whose consumer went away without a revoke (e.g. a container restart under static
+    // membership); acknowledgments still arriving for them belong to the old consumer and are dropped
+    public void reset(Collection<TopicPartition> topicPartitions) {
+        release(topicPartitions);
+    }
+
+    // Cooperative rebalancing only revokes the partitions that move, so waiting here for their in-flight
+    // records lets the container commit right after and hands them over without a redelivery gap
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        awaitDrained(revoked, revokeDrainTimeoutMs);
+        release(revoked);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        release(lost);
+    }
+
+    private void release(Collection<TopicPartition> topicPartitions) {
+        for (TopicPartition topicPartition : topicPartitions) {
+            PartitionOffsets offsets = partitions.remove(topicPartition);
+            if (offsets != null) {
+                offsets.revoke();
+            }
+        }
+    }
+
+    private static final class PartitionOffsets {
+        private final NavigableMap<Long, Acknowledgment> pending = new TreeMap<>();
+        private final Set<Long> completed = new HashSet<>();
+        private boolean revoked;
+
+        synchronized void track(long offset, Acknowledgment acknowledgment) {
+            pending.put(offset, acknowledgment);
+        }
+
+        synchronized void complete(long offset) {
+            if (revoked || !pending.containsKey(offset)) {
+                return;
+            }
+            completed.add(offset);
+
+            Acknowledgment highestContiguous = null;
+            while (!pending.isEmpty() && completed.remove(pending.firstKey())) {
+                highestContiguous = pending.pollFirstEntry().getValue();
+            }
+            if (highestContiguous != null) {
+                highestContiguous.acknowledge();
+            }
+            if (pending.isEmpty()) {
+                notifyAll();
+            }
+        }
+
+        synchronized boolean awaitDrained(long deadline) {
+            long remaining;
+            while (!pending.isEmpty() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return pending.isEmpty();
+        }
+
+        synchronized void revoke() {
+            revoked = true;
+            pending.clear();
+            completed.clear();
+            notifyAll();
+        }
+
+        synchronized int size() {
+            return pending.size();
+        }
+    }
+}
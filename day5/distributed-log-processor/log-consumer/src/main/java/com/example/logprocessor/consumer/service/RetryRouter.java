@@ -0,0 +1,184 @@
+package com.example.logprocessor.consumer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Tiered, non-blocking retries: a failed record is republished to the next delayed retry topic, and after the
+// last tier to the dead-letter topic with its cause, stack trace and original coordinates in headers.
+@Service
+public class RetryRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryRouter.class);
+
+    public static final String MAIN_TOPIC = "log-events";
+    public static final String RETRY_TOPIC_0 = "log-events-retry-0";
+    public static final String RETRY_TOPIC_1 = "log-events-retry-1";
+    public static final String RETRY_TOPIC_2 = "log-events-retry-2";
+    public static final String DLQ_TOPIC = "log-events-dlq";
+    private static final String[] RETRY_TOPICS = { RETRY_TOPIC_0, RETRY_TOPIC_1, RETRY_TOPIC_2 };
+
+    public static final String HEADER_ATTEMPT = "x-retry-attempt";
+    public static final String HEADER_DUE_AT = "x-retry-due-at";
+    public static final String HEADER_TIERS = "x-retry-tiers";
+    public static final String HEADER_ORIGINAL_TOPIC = "x-original-topic";
+    public static final String HEADER_ORIGINAL_PARTITION = "x-original-partition";
+    public static final String HEADER_ORIGINAL_OFFSET = "x-original-offset";
+    public static final String HEADER_EXCEPTION_CLASS = "x-exception-class";
+    public static final String HEADER_EXCEPTION_MESSAGE = "x-exception-message";
+    public static final String HEADER_EXCEPTION_STACKTRACE = "x-exception-stacktrace";
+    public static final String HEADER_FAILED_AT = "x-failed-at";
+    private static final int MAX_STACKTRACE_LENGTH = 8192;
+
+    // One delay per retry topic; each tier backs off further than the last
+    @Value("${log.consumer.retry.delays-ms:1000,10000,60000}")
+    private long[] delaysMs;
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final Counter retriedCounter;
+    private final Counter deadLetteredCounter;
+
+    @Autowired
+    public RetryRouter(KafkaTemplate<String, String> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.retriedCounter = Counter.builder("log_events_retried_total")
+                .description("Total number of log events sent to a retry topic")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("log_events_dead_lettered_total")
+                .description("Total number of log events sent to the dead-letter topic")
+                .register(meterRegistry);
+    }
+
+    // Completes once the record is safely on its next topic; the caller must not commit it before that
+    public CompletableFuture<Void> routeFailure(ConsumerRecord<String, String> record, Throwable failure) {
+        Throwable cause = unwrap(failure);
+        int attempt = readInt(record.headers(), HEADER_ATTEMPT, 0);
+        Set<String> tiers = cause instanceof TierWriteException
+            ? ((TierWriteException) cause).getFailedTiers()
+            : readTiers(record.headers());
+
+        if (!isRetryable(cause) || attempt >= RETRY_TOPICS.length) {
+            return deadLetter(record, cause);
+        }
+
+        ProducerRecord<String, String> retry = new ProducerRecord<>(RETRY_TOPICS[attempt], record.key(), record.value());
+        copyOriginalCoordinates(record, retry.headers());
+        long dueAt = System.currentTimeMillis() + delaysMs[Math.min(attempt, delaysMs.length - 1)];
+        setHeader(retry.headers(), HEADER_ATTEMPT, String.valueOf(attempt + 1));
+        setHeader(retry.headers(), HEADER_DUE_AT, String.valueOf(dueAt));
+        if (tiers != null) {
+            setHeader(retry.headers(), HEADER_TIERS, String.join(",", tiers));
+        }
+
+        return kafkaTemplate.send(retry).thenAccept(result -> {
+            retriedCounter.increment();
+            logger.info("Scheduled retry {} for record {}-{}@{} on {}", attempt + 1,
+                       record.topic(), record.partition(), record.offset(), RETRY_TOPICS[attempt]);
+        });
+    }
+
+    public CompletableFuture<Void> deadLetter(ConsumerRecord<String, String> record, Throwable failure) {
+        Throwable cause = unwrap(failure);
+        ProducerRecord<String, String> dead = new ProducerRecord<>(DLQ_TOPIC, record.key(), record.value());
+        copyOriginalCoordinates(record, dead.headers());
+        setHeader(dead.headers(), HEADER_ATTEMPT, String.valueOf(readInt(record.headers(), HEADER_ATTEMPT, 0)));
+        setHeader(dead.headers(), HEADER_EXCEPTION_CLASS, cause.getClass().getName());
+        setHeader(dead.headers(), HEADER_EXCEPTION_MESSAGE, String.valueOf(cause.getMessage()));
+        setHeader(dead.headers(), HEADER_EXCEPTION_STACKTRACE, stackTrace(cause));
+        setHeader(dead.headers(), HEADER_FAILED_AT, Instant.now().toString());
+        Header tiers = record.headers().lastHeader(HEADER_TIERS);
+        if (cause instanceof TierWriteException) {
+            setHeader(dead.headers(), HEADER_TIERS, String.join(",", ((TierWriteException) cause).getFailedTiers()));
+        } else if (tiers != null) {
+            dead.headers().add(tiers);
+        }
+
+        return kafkaTemplate.send(dead).thenAccept(result -> {
+            deadLetteredCounter.increment();
+            logger.warn("Dead-lettered record {}-{}@{}: {}", record.topic(), record.partition(), record.offset(),
+                       cause.toString());
+        });
+    }
+
+    public static long readDueAt(ConsumerRecord<String, String> record) {
+        Header header = record.headers().lastHeader(HEADER_DUE_AT);
+        return header != null ? Long.parseLong(new String(header.value(), StandardCharsets.UTF_8)) : 0L;
+    }
+
+    // "<topic>-<partition>-<offset>" of the record as first produced, whichever retry topic it arrived on
+    public static String readSourcePosition(ConsumerRecord<String, String> record) {
+        Header topic = record.headers().lastHeader(HEADER_ORIGINAL_TOPIC);
+        if (topic == null) {
+            return record.topic() + "-" + record.partition() + "-" + record.offset();
+        }
+        return new String(topic.value(), StandardCharsets.UTF_8)
+            + "-" + new String(record.headers().lastHeader(HEADER_ORIGINAL_PARTITION).value(), StandardCharsets.UTF_8)
+            + "-" + new String(record.headers().lastHeader(HEADER_ORIGINAL_OFFSET).value(), StandardCharsets.UTF_8);
+    }
+
+    public static Set<String> readTiers(Headers headers) {
+        Header header = headers.lastHeader(HEADER_TIERS);
+        if (header == null) {
+            return null;
+        }
+        return new LinkedHashSet<>(Arrays.asList(new String(header.value(), StandardCharsets.UTF_8).split(",")));
+    }
+
+    // Malformed payloads will never succeed, so they skip the retry tiers
+    private boolean isRetryable(Throwable cause) {
+        return !(cause instanceof JsonProcessingException);
+    }
+
+    private void copyOriginalCoordinates(ConsumerRecord<String, String> record, Headers target) {
+        if (record.headers().lastHeader(HEADER_ORIGINAL_TOPIC) != null) {
+            target.add(record.headers().lastHeader(HEADER_ORIGINAL_TOPIC));
+            target.add(record.headers().lastHeader(HEADER_ORIGINAL_PARTITION));
+            target.add(record.headers().lastHeader(HEADER_ORIGINAL_OFFSET));
+        } else {
+            setHeader(target, HEADER_ORIGINAL_TOPIC, record.topic());
+            setHeader(target, HEADER_ORIGINAL_PARTITION, String.valueOf(record.partition()));
+            setHeader(target, HEADER_ORIGINAL_OFFSET, String.valueOf(record.offset()));
+        }
+    }
+
+    private static int readInt(Headers headers, String name, int defaultValue) {
+        Header header = headers.lastHeader(name);
+        return header != null ? Integer.parseInt(new String(header.value(), StandardCharsets.UTF_8)) : defaultValue;
+    }
+
+    private static void setHeader(Headers headers, String name, String value) {
+        headers.remove(name);
+        headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static String stackTrace(Throwable cause) {
+        StringWriter writer = new StringWriter();
+        cause.printStackTrace(new PrintWriter(writer));
+        String trace = writer.toString();
+        return trace.length() > MAX_STACKTRACE_LENGTH ? trace.substring(0, MAX_STACKTRACE_LENGTH) : trace;
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 @Service
@@ -43,7 +44,7 @@ public class RotationPolicyService {
 
     private void checkSizeBasedRotation() {
         long maxSizeBytes = parseFileSize(maxFileSize);
-        File coldStorageDir = new File("logs/cold/");
+        File coldStorageDir = new File(fileStorageService.getColdStorageDirectory());
         
         if (coldStorageDir.exists() && coldStorageDir.isDirectory()) {
             File[] files = coldStorageDir.listFiles((dir, name) -> name.endsWith(".log"));
@@ -59,8 +60,8 @@ public class RotationPolicyService {
     }
 
     private void checkTimeBasedRotation() {
-        File coldStorageDir = new File("logs/cold/");
-        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(maxAgeHours);
+        File coldStorageDir = new File(fileStorageService.getColdStorageDirectory());
+        LocalDateTime cutoffTime = LocalDateTime.now(ZoneOffset.UTC).minusHours(maxAgeHours);
         
         if (coldStorageDir.exists() && coldStorageDir.isDirectory()) {
             File[] files = coldStorageDir.listFiles((dir, name) -> name.endsWith(".log"));
@@ -68,7 +69,7 @@ public class RotationPolicyService {
             if (files != null) {
                 for (File file : files) {
                     LocalDateTime fileModified = LocalDateTime.ofEpochSecond(
-                        file.lastModified() / 1000, 0, java.time.ZoneOffset.UTC);
+                        file.lastModified() / 1000, 0, ZoneOffset.UTC);
                     
                     if (fileModified.isBefore(cutoffTime)) {
                         rotateFile(file);
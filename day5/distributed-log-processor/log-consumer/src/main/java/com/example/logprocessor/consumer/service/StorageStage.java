@@ -0,0 +1,227 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One storage tier: items are spread over lanes by laneKey, and each lane is a bounded queue drained by a
+// dedicated thread that writes batches of up to batchSize items, lingering at most lingerMs to fill one.
+// Items sharing a lane key keep their submission order. Futures complete once the batch is written.
+public abstract class StorageStage<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageStage.class);
+    private static final long RETRY_BACKOFF_MS = 200;
+    private static final int MAX_CONSECUTIVE_ISOLATED_FAILURES = 5;
+
+    private final String tier;
+    private final List<BlockingQueue<PendingWrite<T>>> lanes;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final long lingerMs;
+    private final int maxAttempts;
+    private final Timer batchTimer;
+    private final Counter failedWritesCounter;
+    private volatile boolean running = true;
+
+    protected StorageStage(String tier, int laneCount, int queueCapacity, int batchSize, long lingerMs,
+                           int maxAttempts, MeterRegistry meterRegistry) {
+        this.tier = tier;
+        this.lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.maxAttempts = maxAttempts;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(laneCount,
+                r -> new Thread(r, "storage-" + tier + "-" + threadIndex.getAndIncrement()));
+
+        Gauge.builder("log_storage_queue_size", this, StorageStage::getQueueSize)
+                .description("Number of log events waiting in a storage tier queue")
+                .tag("tier", tier)
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("log_storage_batch_duration")
+                .description("Time taken to write one batch to a storage tier")
+                .tag("tier", tier)
+                .register(meterRegistry);
+        this.failedWritesCounter = Counter.builder("log_storage_failed_writes_total")
+                .description("Total number of log events a storage tier failed to write")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        lanes.forEach(lane -> executor.submit(() -> drainLoop(lane)));
+    }
+
+    public CompletableFuture<Void> submit(T item) {
+        PendingWrite<T> write = new PendingWrite<>(item);
+        Object key = laneKey(item);
+        BlockingQueue<PendingWrite<T>> lane = lanes.get(key == null ? 0 : Math.floorMod(key.hashCode(), lanes.size()));
+        try {
+            // Blocks the caller when the lane is saturated
+            lane.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.future.completeExceptionally(e);
+        }
+        return write.future;
+    }
+
+    public String getTier() { return tier; }
+
+    public int getQueueSize() {
+        return lanes.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    // Items with equal keys are written in submission order; null keys all go to the first lane
+    protected Object laneKey(T item) {
+        return null;
+    }
+
+    protected abstract void writeBatch(List<T> items) throws Exception;
+
+    // Writes one item of a failed batch on its own; failedEarlier holds the items of that batch that already failed
+    protected void writeIsolated(T item, List<T> failedEarlier) throws Exception {
+        writeBatch(List.of(item));
+    }
+
+    private void drainLoop(BlockingQueue<PendingWrite<T>> queue) {
+        List<PendingWrite<T>> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite<T> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(queue, batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(write -> write.future.completeExceptionally(e));
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(BlockingQueue<PendingWrite<T>> queue, List<PendingWrite<T>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingWrite<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingWrite<T>> batch) throws InterruptedException {
+        List<T> items = new ArrayList<>(batch.size());
+        for (PendingWrite<T> write : batch) {
+            items.add(write.item);
+        }
+
+        Exception lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            Timer.Sample sample = Timer.start();
+            try {
+                writeBatch(items);
+                sample.stop(batchTimer);
+                batch.forEach(write -> write.future.complete(null));
+                return;
+            } catch (Exception e) {
+                sample.stop(batchTimer);
+                lastError = e;
+                logger.warn("Failed to write batch of {} to {} storage (attempt {}/{})",
+                           items.size(), tier, attempt, maxAttempts, e);
+                if (attempt < maxAttempts) {
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                }
+            }
+        }
+
+        if (batch.size() > 1) {
+            isolateFailures(batch, lastError);
+            return;
+        }
+        failedWritesCounter.increment();
+        batch.get(0).future.completeExceptionally(lastError);
+    }
+
+    // Re-writes a failed batch one item at a time so a single poison item fails alone. Several consecutive
+    // failures mean the tier itself is down, and the rest of the batch fails without further attempts.
+    private void isolateFailures(List<PendingWrite<T>> batch, Exception batchError) {
+        int consecutiveFailures = 0;
+        List<T> failed = new ArrayList<>();
+        for (PendingWrite<T> write : batch) {
+            if (consecutiveFailures >= MAX_CONSECUTIVE_ISOLATED_FAILURES) {
+                failedWritesCounter.increment();
+                failed.add(write.item);
+                write.future.completeExceptionally(batchError);
+                continue;
+            }
+            try {
+                writeIsolated(write.item, failed);
+                write.future.complete(null);
+                consecutiveFailures = 0;
+            } catch (Exception e) {
+                consecutiveFailures++;
+                failedWritesCounter.increment();
+                failed.add(write.item);
+                write.future.completeExceptionally(e);
+            }
+        }
+        logger.warn("Isolated failures in batch of {} for {} storage", batch.size(), tier);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Timed out flushing {} storage queue; {} events left", tier, getQueueSize());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class PendingWrite<T> {
+        private final T item;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingWrite(T item) {
+            this.item = item;
+        }
+    }
+}
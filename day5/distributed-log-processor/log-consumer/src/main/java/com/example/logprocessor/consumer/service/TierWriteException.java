@@ -0,0 +1,16 @@
+package com.example.logprocessor.consumer.service;
+
+import java.util.Set;
+
+// Raised when one or more storage tiers could not persist an event; carries which tiers still need it
+public class TierWriteException extends RuntimeException {
+
+    private final Set<String> failedTiers;
+
+    public TierWriteException(Set<String> failedTiers, Throwable cause) {
+        super("Failed to store log event in tiers " + failedTiers, cause);
+        this.failedTiers = failedTiers;
+    }
+
+    public Set<String> getFailedTiers() { return failedTiers; }
+}
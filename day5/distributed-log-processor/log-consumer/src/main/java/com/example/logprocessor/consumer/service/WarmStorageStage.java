@@ -0,0 +1,140 @@
+package com.example.logprocessor.consumer.service;
+
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
+import com.example.logprocessor.consumer.model.LogEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class WarmStorageStage extends StorageStage<ConsumedLogEvent> {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO log_events (timestamp, level, source, message, message_ref, trace_id, metadata) " +
+        "VALUES (?, ?, ?, ?, ?, ?, CAST(? AS jsonb))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConsumerOffsetStore consumerOffsetStore;
+    private final LogRollupService logRollupService;
+    private final ObjectMapper objectMapper;
+    private final Counter replayedEventsCounter;
+
+    @Autowired
+    public WarmStorageStage(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ConsumerOffsetStore consumerOffsetStore,
+                            LogRollupService logRollupService,
+                            MeterRegistry meterRegistry,
+                            @Value("${log.storage.warm.lanes:4}") int lanes,
+                            @Value("${log.storage.warm.queue-capacity:10000}") int queueCapacity,
+                            @Value("${log.storage.warm.batch-size:500}") int batchSize,
+                            @Value("${log.storage.warm.linger-ms:50}") long lingerMs,
+                            @Value("${log.storage.max-attempts:3}") int maxAttempts) {
+        super("warm", lanes, queueCapacity, batchSize, lingerMs, maxAttempts, meterRegistry);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.consumerOffsetStore = consumerOffsetStore;
+        this.logRollupService = logRollupService;
+        this.objectMapper = new ObjectMapper();
+        this.replayedEventsCounter = Counter.builder("log_storage_replayed_events_skipped_total")
+                .description("Total number of redelivered log events skipped because their offset was already stored")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object laneKey(ConsumedLogEvent event) {
+        // Stored offsets only move forward, so in exactly-once mode a partition must stay on one lane
+        if (consumerOffsetStore.isExactlyOnce()) {
+            return new TopicPartition(event.getTopic(), event.getPartition());
+        }
+        return event.getEvent().getTraceId();
+    }
+
+    @Override
+    protected void writeBatch(List<ConsumedLogEvent> events) throws Exception {
+        if (!consumerOffsetStore.isExactlyOnce()) {
+            List<Object[]> rows = toRows(events);
+            // One multi-row INSERT (reWriteBatchedInserts) and one commit per batch
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                logRollupService.addMinuteCounts(events);
+            });
+            return;
+        }
+        writeWithOffsets(events, Map.of());
+    }
+
+    // A failed item is only protected by its asynchronous send to a retry topic. Were the stored offset to pass
+    // it, a redelivery from it after a crash would be skipped as already stored, so the partition's offset stays
+    // below the first failure; later items are still written and may be written again after such a redelivery.
+    @Override
+    protected void writeIsolated(ConsumedLogEvent event, List<ConsumedLogEvent> failedEarlier) throws Exception {
+        if (!consumerOffsetStore.isExactlyOnce()) {
+            super.writeIsolated(event, failedEarlier);
+            return;
+        }
+        Map<TopicPartition, Long> offsetCaps = new HashMap<>();
+        for (ConsumedLogEvent failed : failedEarlier) {
+            offsetCaps.merge(new TopicPartition(failed.getTopic(), failed.getPartition()), failed.getOffset() - 1, Math::min);
+        }
+        writeWithOffsets(List.of(event), offsetCaps);
+    }
+
+    private void writeWithOffsets(List<ConsumedLogEvent> events, Map<TopicPartition, Long> offsetCaps) {
+        Map<TopicPartition, Long> batchOffsets = new HashMap<>();
+        for (ConsumedLogEvent event : events) {
+            batchOffsets.merge(new TopicPartition(event.getTopic(), event.getPartition()), event.getOffset(), Math::max);
+        }
+        offsetCaps.forEach((topicPartition, cap) -> batchOffsets.computeIfPresent(topicPartition, (tp, offset) -> Math.min(offset, cap)));
+
+        // Rows and their source offsets commit atomically, so a redelivered record is recognised by offset alone
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<TopicPartition, Long> storedOffsets = consumerOffsetStore.lockOffsets(batchOffsets.keySet());
+            List<ConsumedLogEvent> fresh = new ArrayList<>(events.size());
+            for (ConsumedLogEvent event : events) {
+                Long stored = storedOffsets.get(new TopicPartition(event.getTopic(), event.getPartition()));
+                if (stored == null || event.getOffset() > stored) {
+                    fresh.add(event);
+                }
+            }
+            replayedEventsCounter.increment(events.size() - fresh.size());
+
+            jdbcTemplate.batchUpdate(INSERT_SQL, toRows(fresh));
+            logRollupService.addMinuteCounts(fresh);
+            consumerOffsetStore.saveOffsets(batchOffsets);
+        });
+    }
+
+    private List<Object[]> toRows(List<ConsumedLogEvent> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (ConsumedLogEvent consumed : events) {
+            LogEvent event = consumed.getEvent();
+            rows.add(new Object[] {
+                event.getTimestamp(), event.getLevel(), event.getSource(),
+                event.getMessage(), event.getMessageRef(), event.getTraceId(), toJson(event)
+            });
+        }
+        return rows;
+    }
+
+    private String toJson(LogEvent event) {
+        try {
+            return event.getMetadata() != null ? objectMapper.writeValueAsString(event.getMetadata()) : null;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize log event metadata", e);
+        }
+    }
+}
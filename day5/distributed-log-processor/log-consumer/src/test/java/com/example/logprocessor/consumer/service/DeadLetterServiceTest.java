@@ -0,0 +1,120 @@
+package com.example.logprocessor.consumer.service;
+
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
+import com.example.logprocessor.consumer.model.LogEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeadLetterServiceTest {
+
+    @SuppressWarnings("unchecked")
+    private final ConsumerFactory<String, String> consumerFactory = mock(ConsumerFactory.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final Consumer<String, String> consumer = mock(Consumer.class);
+
+    private final DeadLetterService deadLetterService =
+        new DeadLetterService(consumerFactory, kafkaTemplate, new SimpleMeterRegistry());
+
+    @Test
+    void redriveKeepsFailedTiersAndResetsTheRetrySchedule() {
+        ProducerRecord<String, String> redriven = redrive(deadLettered("hot,cold"));
+
+        assertThat(redriven.topic()).isEqualTo(RetryRouter.MAIN_TOPIC);
+        assertThat(header(redriven, RetryRouter.HEADER_TIERS)).isEqualTo("hot,cold");
+        assertThat(header(redriven, RetryRouter.HEADER_ORIGINAL_OFFSET)).isEqualTo("7");
+        assertThat(redriven.headers().lastHeader(RetryRouter.HEADER_ATTEMPT)).isNull();
+        assertThat(redriven.headers().lastHeader(RetryRouter.HEADER_DUE_AT)).isNull();
+        assertThat(redriven.headers().headers("x-redrive-count")).hasSize(1);
+        assertThat(header(redriven, "x-redrive-count")).isEqualTo("2");
+    }
+
+    @Test
+    void redrivenRecordIsNotWrittenToTiersThatAlreadyStoredIt() {
+        ProducerRecord<String, String> redriven = redrive(deadLettered("hot,cold"));
+
+        WarmStorageStage warm = stage(WarmStorageStage.class, "warm");
+        HotStorageStage hot = stage(HotStorageStage.class, "hot");
+        ColdStorageStage cold = stage(ColdStorageStage.class, "cold");
+        LogStorageService storageService = new LogStorageService(warm, hot, cold, mock(BlobOffloadStage.class));
+        LogEvent event = new LogEvent(LocalDateTime.now(), "ERROR", "api", "boom", "trace-1");
+
+        storageService.storeLogEvent(new ConsumedLogEvent(event, RetryRouter.MAIN_TOPIC, 0, 100, redriven.value()),
+                                     RetryRouter.readTiers(redriven.headers()));
+
+        verify(warm, never()).submit(any());
+        verify(hot).submit(any());
+        verify(cold).submit(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, String> redrive(ConsumerRecord<String, String> record) {
+        when(consumerFactory.createConsumer(anyString(), anyString(), isNull(), any(Properties.class))).thenReturn(consumer);
+        TopicPartition dlq = new TopicPartition(RetryRouter.DLQ_TOPIC, 0);
+        when(consumer.poll(any(Duration.class)))
+            .thenReturn(new ConsumerRecords<>(Map.of(dlq, List.of(record))))
+            .thenReturn(ConsumerRecords.empty());
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(deadLetterService.redrive(10)).isEqualTo(1);
+
+        ArgumentCaptor<ProducerRecord<String, String>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(sent.capture());
+        return sent.getValue();
+    }
+
+    private static ConsumerRecord<String, String> deadLettered(String failedTiers) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(RetryRouter.DLQ_TOPIC, 0, 3, "key", "{}");
+        addHeader(record, RetryRouter.HEADER_ORIGINAL_TOPIC, RetryRouter.MAIN_TOPIC);
+        addHeader(record, RetryRouter.HEADER_ORIGINAL_PARTITION, "0");
+        addHeader(record, RetryRouter.HEADER_ORIGINAL_OFFSET, "7");
+        addHeader(record, RetryRouter.HEADER_ATTEMPT, "3");
+        addHeader(record, RetryRouter.HEADER_DUE_AT, "12345");
+        addHeader(record, RetryRouter.HEADER_TIERS, failedTiers);
+        addHeader(record, "x-redrive-count", "1");
+        return record;
+    }
+
+    private static <T extends StorageStage<?>> T stage(Class<T> type, String tier) {
+        T stage = mock(type);
+        when(stage.getTier()).thenReturn(tier);
+        when(stage.submit(any())).thenReturn(CompletableFuture.completedFuture(null));
+        return stage;
+    }
+
+    private static void addHeader(ConsumerRecord<String, String> record, String name, String value) {
+        record.headers().add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String header(ProducerRecord<String, String> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
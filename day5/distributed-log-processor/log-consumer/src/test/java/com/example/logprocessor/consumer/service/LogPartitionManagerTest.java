@@ -0,0 +1,51 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LogPartitionManagerTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LogPartitionManager partitionManager = new LogPartitionManager(jdbcTemplate, new SimpleMeterRegistry());
+
+    @Test
+    void startsBeforeTheKafkaListenerContainers() {
+        assertThat(partitionManager.getPhase()).isLessThan(AbstractMessageListenerContainer.DEFAULT_PHASE);
+    }
+
+    @Test
+    void startCreatesTodaysAndUpcomingUtcPartitions() {
+        ReflectionTestUtils.setField(partitionManager, "enabled", true);
+        ReflectionTestUtils.setField(partitionManager, "premakeDays", 2);
+        ReflectionTestUtils.setField(partitionManager, "retentionDays", 30);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of());
+
+        partitionManager.start();
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int i = 0; i <= 2; i++) {
+            LocalDate day = today.plusDays(i);
+            verify(jdbcTemplate).execute(contains("log_events_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE)
+                + " PARTITION OF log_events FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')"));
+        }
+        assertThat(partitionManager.isRunning()).isTrue();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.logprocessor.consumer.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class OffsetCommitTrackerTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("log-events", 0);
+
+    private final OffsetCommitTracker tracker = new OffsetCommitTracker(new SimpleMeterRegistry());
+
+    @Test
+    void acknowledgesOnlyTheHighestContiguousCompletedOffset() {
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Acknowledgment ack1 = mock(Acknowledgment.class);
+        Acknowledgment ack2 = mock(Acknowledgment.class);
+        Runnable done0 = tracker.track(record(0, 0), ack0);
+        Runnable done1 = tracker.track(record(0, 1), ack1);
+        Runnable done2 = tracker.track(record(0, 2), ack2);
+
+        // Offset 2 finishing first cannot be committed while 0 and 1 are still running
+        done2.run();
+        verifyNoInteractions(ack0, ack1, ack2);
+        assertThat(tracker.getInFlightCount()).isEqualTo(3);
+
+        done0.run();
+        verify(ack0).acknowledge();
+        assertThat(tracker.getInFlightCount()).isEqualTo(2);
+
+        // Completing the gap commits through offset 2 with a single acknowledgment
+        done1.run();
+        verify(ack1, never()).acknowledge();
+        verify(ack2).acknowledge();
+        assertThat(tracker.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void partitionsAreTrackedIndependently() {
+        Acknowledgment ackA = mock(Acknowledgment.class);
+        Acknowledgment ackB = mock(Acknowledgment.class);
+        tracker.track(record(0, 10), mock(Acknowledgment.class));
+        Runnable doneA = tracker.track(record(0, 11), ackA);
+        Runnable doneB = tracker.track(record(1, 5), ackB);
+
+        doneA.run();
+        doneB.run();
+
+        verifyNoInteractions(ackA);
+        verify(ackB).acknowledge();
+        assertThat(tracker.getInFlightByPartition()).containsEntry(PARTITION_0, 2);
+    }
+
+    @Test
+    void repeatedCompletionIsIgnored() {
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Runnable done0 = tracker.track(record(0, 0), ack0);
+
+        done0.run();
+        done0.run();
+
+        verify(ack0).acknowledge();
+    }
+
+    @Test
+    void completionsAfterResetAreDropped() {
+        Acknowledgment ack0 = mock(Acknowledgment.class);
+        Runnable done0 = tracker.track(record(0, 0), ack0);
+
+        tracker.reset(List.of(PARTITION_0));
+        done0.run();
+
+        verifyNoInteractions(ack0);
+        assertThat(tracker.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void awaitDrainedTimesOutWhileRecordsAreInFlight() {
+        tracker.track(record(0, 0), mock(Acknowledgment.class));
+
+        assertThat(tracker.awaitDrained(List.of(PARTITION_0), 20)).isFalse();
+        assertThat(tracker.awaitDrained(List.of(new TopicPartition("log-events", 1)), 20)).isTrue();
+    }
+
+    @Test
+    void awaitDrainedReturnsOnceTheLastRecordCompletes() throws Exception {
+        Runnable done0 = tracker.track(record(0, 0), mock(Acknowledgment.class));
+
+        CompletableFuture<Boolean> drained = CompletableFuture.supplyAsync(() -> tracker.awaitDrained(List.of(PARTITION_0), 5000));
+        done0.run();
+
+        assertThat(drained.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static ConsumerRecord<String, String> record(int partition, long offset) {
+        return new ConsumerRecord<>("log-events", partition, offset, null, "event-" + offset);
+    }
+}
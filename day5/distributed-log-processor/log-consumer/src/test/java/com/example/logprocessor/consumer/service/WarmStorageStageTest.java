@@ -0,0 +1,80 @@
+package com.example.logprocessor.consumer.service;
+
+import com.example.logprocessor.consumer.model.ConsumedLogEvent;
+import com.example.logprocessor.consumer.model.LogEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WarmStorageStageTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition(RetryRouter.MAIN_TOPIC, 0);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ConsumerOffsetStore consumerOffsetStore = mock(ConsumerOffsetStore.class);
+    private WarmStorageStage stage;
+
+    @AfterEach
+    void shutdown() {
+        if (stage != null) {
+            stage.shutdown();
+        }
+    }
+
+    @Test
+    void storedOffsetStaysBelowTheFirstIsolatedFailureInExactlyOnceMode() throws Exception {
+        when(consumerOffsetStore.isExactlyOnce()).thenReturn(true);
+        when(consumerOffsetStore.lockOffsets(anyCollection())).thenReturn(Map.of(PARTITION, 9L));
+        // Any write containing the poison row fails, so the batch falls back to one item at a time
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> "poison".equals(row[3]))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return new int[rows.size()];
+        });
+        stage = new WarmStorageStage(jdbcTemplate, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            consumerOffsetStore, mock(LogRollupService.class), new SimpleMeterRegistry(), 1, 100, 10, 200, 1);
+        stage.start();
+
+        CompletableFuture<Void> first = stage.submit(event(10, "ok"));
+        CompletableFuture<Void> poison = stage.submit(event(11, "poison"));
+        CompletableFuture<Void> after = stage.submit(event(12, "ok"));
+
+        first.get(5, TimeUnit.SECONDS);
+        after.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> poison.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<TopicPartition, Long>> saved = ArgumentCaptor.forClass(Map.class);
+        verify(consumerOffsetStore, atLeastOnce()).saveOffsets(saved.capture());
+        // Offset 12 was written, but a redelivery from 11 must still find 11 unstored
+        assertThat(saved.getAllValues()).allSatisfy(offsets -> assertThat(offsets.get(PARTITION)).isLessThanOrEqualTo(10L));
+    }
+
+    private static ConsumedLogEvent event(long offset, String message) {
+        LogEvent event = new LogEvent(LocalDateTime.now(), "INFO", "api", message, "trace-" + offset);
+        return new ConsumedLogEvent(event, PARTITION.topic(), PARTITION.partition(), offset, "{}");
+    }
+}
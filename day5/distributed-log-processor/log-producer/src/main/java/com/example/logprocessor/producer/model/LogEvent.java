@@ -2,6 +2,7 @@ package com.example.logprocessor.producer.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Map;
 
 public class LogEvent {
@@ -25,7 +26,7 @@ public class LogEvent {
 
     // Constructors
     public LogEvent() {
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = LocalDateTime.now(ZoneOffset.UTC);
     }
 
     public LogEvent(String level, String source, String message, Map<String, Object> metadata) {
@@ -19,6 +19,9 @@ timeout 60 bash -c 'until docker exec kafka kafka-topics --bootstrap-server loca
 # Create Kafka topic
 echo "📝 Creating Kafka topics..."
 docker exec kafka kafka-topics --create --bootstrap-server localhost:9092 --topic log-events --partitions 3 --replication-factor 1 --if-not-exists
+for topic in log-events-retry-0 log-events-retry-1 log-events-retry-2 log-events-dlq; do
+  docker exec kafka kafka-topics --create --bootstrap-server localhost:9092 --topic $topic --partitions 3 --replication-factor 1 --if-not-exists
+done
 
 # Build and start applications
 echo "🔨 Building applications..."
@@ -27,6 +30,10 @@ mvn clean package -DskipTests
 # Create logs directory for application logs
 mkdir -p logs
 
+# Blob segments and cold files are written by log-consumer and read by api-gateway, so both get one absolute path
+export LOG_DATA_DIR="${LOG_DATA_DIR:-$(pwd)/data}"
+mkdir -p "$LOG_DATA_DIR"
+
 echo "🚀 Starting applications..."
 
 # Start log-consumer first
@@ -64,6 +71,7 @@ echo "  Log Producer: http://localhost:8081"
 echo "  Log Consumer: http://localhost:8082"
 echo "  Grafana: http://localhost:3000 (admin/admin)"
 echo "  Prometheus: http://localhost:9090"
+echo "  Blob/cold data: $LOG_DATA_DIR"
 echo ""
 echo "📊 To view metrics: http://localhost:3000"
 echo "🔍 To send test logs: curl -X POST http://localhost:8081/api/v1/logs -H 'Content-Type: application/json' -d '{\"level\":\"INFO\",\"source\":\"test\",\"message\":\"Test message\"}'"